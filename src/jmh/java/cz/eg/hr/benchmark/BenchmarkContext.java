@@ -0,0 +1,97 @@
+package cz.eg.hr.benchmark;
+
+import cz.eg.hr.Application;
+import cz.eg.hr.data.FrameworkVersion;
+import cz.eg.hr.data.JavascriptFramework;
+import cz.eg.hr.rest.BatchItemResult;
+import cz.eg.hr.service.IndexingOutbox;
+import cz.eg.hr.service.JavascriptFrameworkService;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Application context for benchmarks with a fresh in-memory database and index seeded with generated frameworks.
+ */
+final class BenchmarkContext {
+
+    private static final String[] NAMES = {
+        "Angular", "React", "Vue", "Svelte", "Ember", "Backbone", "Preact", "Solid", "Lit", "Alpine",
+        "Qwik", "Mithril", "Aurelia", "Knockout", "Polymer", "Stimulus", "Inferno", "Riot", "Marko", "Hyperapp"
+    };
+
+    private BenchmarkContext() {
+    }
+
+    static ConfigurableApplicationContext start() {
+        return start(WebApplicationType.NONE);
+    }
+
+    /**
+     * Context with the embedded web server listening on a random port, see {@link #port}. Arguments like
+     * {@code --name=value} override application properties.
+     */
+    static ConfigurableApplicationContext startServer(String... args) {
+        return start(WebApplicationType.SERVLET, args);
+    }
+
+    static int port(ConfigurableApplicationContext context) {
+        return context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+    }
+
+    private static ConfigurableApplicationContext start(WebApplicationType type, String... args) {
+        return new SpringApplicationBuilder(Application.class)
+                .web(type)
+                .logStartupInfo(false)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:" + UUID.randomUUID(),
+                        "spring.jpa.properties.hibernate.search.backend.directory.type=local-heap",
+                        "logging.level.root=WARN",
+                        "server.port=0"
+                )
+                .run(args);
+    }
+
+    /**
+     * Saves generated frameworks and waits for their indexing. Returns their IDs, the ID of the framework with index
+     * {@code i} is at index {@code i}.
+     */
+    static List<Long> seed(ConfigurableApplicationContext context, int frameworks, int versionsPerFramework) {
+        JavascriptFrameworkService service = context.getBean(JavascriptFrameworkService.class);
+        List<Long> ids = new ArrayList<>(frameworks);
+        List<JavascriptFramework> batch = new ArrayList<>(JavascriptFrameworkService.MAX_BATCH_SIZE);
+        for (int i = 0; i < frameworks; i++) {
+            batch.add(framework(i, versionsPerFramework));
+            if (batch.size() == JavascriptFrameworkService.MAX_BATCH_SIZE || i == frameworks - 1) {
+                service.saveAll(batch).stream().map(BatchItemResult::id).forEach(ids::add);
+                batch.clear();
+            }
+        }
+        if (!context.getBean(IndexingOutbox.class).awaitIndexed(Duration.ofMinutes(30))) {
+            throw new IllegalStateException("Seeded frameworks were not indexed in time.");
+        }
+        return ids;
+    }
+
+    /**
+     * Generated framework, {@code index} makes the name unique.
+     */
+    static JavascriptFramework framework(int index, int versions) {
+        String name = NAMES[index % NAMES.length] + "-" + (index / NAMES.length);
+        JavascriptFramework framework = new JavascriptFramework(
+                name,
+                name + " is a generated framework number " + index,
+                1 + index % 5
+        );
+        for (int v = 0; v < versions; v++) {
+            LocalDate deprecation = v + 1 < versions ? LocalDate.of(2010, 1, 1).plusDays(index % 365 + v * 30L) : null;
+            framework.addVersion(new FrameworkVersion((v / 10) + "." + (v % 10), deprecation));
+        }
+        return framework;
+    }
+}
@@ -0,0 +1,68 @@
+package cz.eg.hr.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cz.eg.hr.rest.FrameworkPage;
+import cz.eg.hr.service.ContentCoding;
+import cz.eg.hr.service.JavascriptFrameworkService;
+import cz.eg.hr.service.ResponseFormat;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+
+/**
+ * Time to encode a page of 100 frameworks with their versions in every format and compression, what a cache miss costs
+ * on top of loading the page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EncodingBenchmark {
+
+    @Param({"JSON", "CBOR"})
+    private ResponseFormat format;
+
+    @Param({"IDENTITY", "GZIP", "ZSTD"})
+    private ContentCoding coding;
+
+    private ConfigurableApplicationContext context;
+
+    private ObjectMapper objectMapper;
+
+    private FrameworkPage page;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        context = BenchmarkContext.start();
+        objectMapper = format == ResponseFormat.CBOR
+                ? context.getBean(MappingJackson2CborHttpMessageConverter.class).getObjectMapper()
+                : context.getBean(ObjectMapper.class);
+        BenchmarkContext.seed(context, 100, 3);
+        page = context.getBean(JavascriptFrameworkService.class).listAll(null, 100);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] encode() throws JsonProcessingException {
+        return coding.encode(objectMapper.writeValueAsBytes(page));
+    }
+}
@@ -0,0 +1,70 @@
+package cz.eg.hr.benchmark;
+
+import cz.eg.hr.rest.FrameworkView;
+import cz.eg.hr.rest.SearchPage;
+import cz.eg.hr.rest.SearchQuery;
+import cz.eg.hr.rest.SearchSort;
+import cz.eg.hr.service.JavascriptFrameworkService;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Throughput of the fulltext search returning all hits and of its paginated variant. Every twentieth generated
+ * framework matches the name, all of them match the description.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class FulltextSearchBenchmark {
+
+    @Param({"1000", "100000"})
+    private int frameworks;
+
+    @Param({"react", "generated"})
+    private String text;
+
+    private ConfigurableApplicationContext context;
+
+    private JavascriptFrameworkService service;
+
+    private SearchQuery query;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        service = context.getBean(JavascriptFrameworkService.class);
+        BenchmarkContext.seed(context, frameworks, 3);
+        query = new SearchQuery(text, null, null, null, SearchSort.RELEVANCE, false, 0, 20);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<FrameworkView> fulltextSearch() {
+        return service.fulltextSearch(text);
+    }
+
+    @Benchmark
+    public SearchPage<FrameworkView> fulltextSearchPage() {
+        return service.fulltextSearch(query);
+    }
+}
@@ -0,0 +1,115 @@
+package cz.eg.hr.benchmark;
+
+import cz.eg.hr.data.JavascriptFramework;
+import cz.eg.hr.rest.FrameworkPage;
+import cz.eg.hr.rest.FrameworkView;
+import cz.eg.hr.service.JavascriptFrameworkService;
+import jakarta.persistence.EntityManager;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Throughput of listing frameworks with their versions, the whole table and a page of the keyset pagination. The page
+ * is also loaded as entities with fetched versions, the way it was read before the projection, to compare allocation
+ * per operation reported by the GC profiler.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ListAllBenchmark {
+
+    private static final String ENTITIES_PAGE =
+            "SELECT DISTINCT f"
+            + " FROM JavascriptFramework f"
+            + " LEFT JOIN FETCH f.versions"
+            + " WHERE f.id IN :ids"
+            + " ORDER BY f.id";
+
+    @Param({"1000", "100000"})
+    private int frameworks;
+
+    private ConfigurableApplicationContext context;
+
+    private JavascriptFrameworkService service;
+
+    private EntityManager em;
+
+    private TransactionTemplate transaction;
+
+    private List<Long> pageIds;
+
+    private Long middleId;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        service = context.getBean(JavascriptFrameworkService.class);
+        transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        transaction.setReadOnly(true);
+        em = context.getBean(EntityManager.class);
+        List<Long> ids = BenchmarkContext.seed(context, frameworks, 3);
+        middleId = ids.get(frameworks / 2);
+        pageIds = ids.subList(frameworks / 2 + 1, frameworks / 2 + 101);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void listAll(Blackhole blackhole) {
+        transaction.executeWithoutResult(status -> {
+            for (FrameworkView framework : service.listAll()) {
+                blackhole.consume(framework.versions().size());
+            }
+        });
+    }
+
+    /**
+     * Page from the middle of the table.
+     */
+    @Benchmark
+    public void listAllPage(Blackhole blackhole) {
+        transaction.executeWithoutResult(status -> {
+            FrameworkPage page = service.listAll(middleId, 100);
+            for (FrameworkView framework : page.items()) {
+                blackhole.consume(framework.versions().size());
+            }
+        });
+    }
+
+    /**
+     * The same page loaded as managed entities.
+     */
+    @Benchmark
+    public void listAllPageEntities(Blackhole blackhole) {
+        transaction.executeWithoutResult(status -> {
+            List<JavascriptFramework> page = em.createQuery(ENTITIES_PAGE, JavascriptFramework.class)
+                    .setParameter("ids", pageIds)
+                    .getResultList();
+            for (JavascriptFramework framework : page) {
+                blackhole.consume(framework.getVersions().size());
+            }
+        });
+    }
+}
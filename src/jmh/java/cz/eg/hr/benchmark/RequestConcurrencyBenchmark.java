@@ -0,0 +1,92 @@
+package cz.eg.hr.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Load test of the REST API over HTTP with request handling on pooled platform threads and on virtual threads. More
+ * clients than Tomcat has threads send requests which block on the database and the index: a keyset page, whose ETag
+ * is computed by a query on every request, and name suggestions, whose cached results expire immediately here, so
+ * only concurrent identical requests share a query. Throughput is the sustained number of requests per second, the
+ * p0.99 percentile of the sample time is the tail latency.
+ * <p>
+ * Virtual threads need Java 21, on older Java the {@code virtualThreads=true} runs fail at startup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Threads(400)
+@Fork(1)
+public class RequestConcurrencyBenchmark {
+
+    private static final String[] PREFIXES = {"a", "re", "vu", "sv", "emb", "back", "pre", "so", "li", "alp"};
+
+    @Param({"false", "true"})
+    private boolean virtualThreads;
+
+    private ConfigurableApplicationContext context;
+
+    private HttpClient client;
+
+    private String baseUrl;
+
+    private List<Long> ids;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.startServer(
+                "--frameworks.virtual-threads.enabled=" + virtualThreads,
+                "--frameworks.cache.searches-ttl=0s"
+        );
+        ids = BenchmarkContext.seed(context, 10000, 3);
+        baseUrl = "http://localhost:" + BenchmarkContext.port(context);
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int frameworksPage() throws IOException, InterruptedException {
+        Long after = ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+        return send("/frameworks?limit=20&after=" + after);
+    }
+
+    @Benchmark
+    public int suggest() throws IOException, InterruptedException {
+        return send("/frameworks/suggest?text=" + PREFIXES[ThreadLocalRandom.current().nextInt(PREFIXES.length)]);
+    }
+
+    private int send(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Request " + path + " failed with status " + response.statusCode() + ".");
+        }
+        return response.statusCode();
+    }
+}
@@ -0,0 +1,61 @@
+package cz.eg.hr.benchmark;
+
+import cz.eg.hr.rest.FrameworkProjection;
+import cz.eg.hr.service.JavascriptFrameworkService;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Latency of name suggestions, the p0.99 percentile of the sample time has to stay below 5 ms.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SuggestBenchmark {
+
+    @Param({"1000", "100000"})
+    private int frameworks;
+
+    /**
+     * Single letter, prefix of a word and a typo.
+     */
+    @Param({"r", "reac", "angluar"})
+    private String text;
+
+    private ConfigurableApplicationContext context;
+
+    private JavascriptFrameworkService service;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        service = context.getBean(JavascriptFrameworkService.class);
+        BenchmarkContext.seed(context, frameworks, 3);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<FrameworkProjection> suggest() {
+        return service.suggest(text, 10);
+    }
+}
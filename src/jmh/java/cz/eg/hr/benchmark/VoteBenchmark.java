@@ -0,0 +1,61 @@
+package cz.eg.hr.benchmark;
+
+import cz.eg.hr.service.VoteTally;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Throughput of votes from many threads, for a single trending framework and spread over many frameworks. Votes are
+ * stored by the scheduled flush in background as in production.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class VoteBenchmark {
+
+    @Param({"1", "1000"})
+    private int frameworks;
+
+    private ConfigurableApplicationContext context;
+
+    private VoteTally voteTally;
+
+    private List<Long> ids;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        voteTally = context.getBean(VoteTally.class);
+        ids = BenchmarkContext.seed(context, frameworks, 0);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void vote() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        voteTally.vote(ids.get(random.nextInt(frameworks)), random.nextInt(1, VoteTally.MAX_STARS + 1));
+    }
+}
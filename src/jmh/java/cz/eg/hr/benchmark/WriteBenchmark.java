@@ -0,0 +1,83 @@
+package cz.eg.hr.benchmark;
+
+import cz.eg.hr.data.JavascriptFramework;
+import cz.eg.hr.service.JavascriptFrameworkService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Throughput of creating and updating a single framework with three versions, including its indexing. Frameworks
+ * created during an iteration are deleted after it, so the table keeps its size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class WriteBenchmark {
+
+    @Param({"1000", "100000"})
+    private int frameworks;
+
+    private ConfigurableApplicationContext context;
+
+    private JavascriptFrameworkService service;
+
+    private List<Long> ids;
+
+    private final List<Long> created = new ArrayList<>();
+
+    private int sequence;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        service = context.getBean(JavascriptFrameworkService.class);
+        ids = BenchmarkContext.seed(context, frameworks, 3);
+        sequence = frameworks;
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteCreated() {
+        created.forEach(service::delete);
+        created.clear();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public JavascriptFramework create() {
+        JavascriptFramework framework = service.create(BenchmarkContext.framework(sequence++, 3));
+        created.add(framework.getId());
+        return framework;
+    }
+
+    /**
+     * Replaces a random seeded framework.
+     */
+    @Benchmark
+    public JavascriptFramework update() {
+        int index = ThreadLocalRandom.current().nextInt(frameworks);
+        return service.update(ids.get(index), BenchmarkContext.framework(index, 3));
+    }
+}
@@ -0,0 +1,85 @@
+package cz.eg.hr.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Hibernate second-level and query cache backed by Caffeine through JCache. Every region is bounded by the number of
+ * entries and time to live, configured by {@code frameworks.entity-cache.<region>.max-size} and {@code ttl}.
+ */
+@Configuration
+public class EntityCacheConfig {
+
+    public static final String FRAMEWORK_REGION = "javascript-framework";
+
+    public static final String FRAMEWORK_VERSIONS_REGION = "javascript-framework-versions";
+
+    public static final String VERSION_REGION = "framework-version";
+
+    private static final String QUERY_RESULTS_REGION = "default-query-results-region";
+
+    /**
+     * Last modification times of tables, used to invalidate query results. It must not lose entries, so it's unbounded.
+     */
+    private static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    private static final List<String> BOUNDED_REGIONS = List.of(
+            FRAMEWORK_REGION,
+            FRAMEWORK_VERSIONS_REGION,
+            VERSION_REGION,
+            QUERY_RESULTS_REGION
+    );
+
+    @Bean(destroyMethod = "close")
+    public CacheManager entityCacheManager(Environment environment) {
+        // Own manager for every application context, so that more contexts can live in one JVM
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("entity-cache-" + UUID.randomUUID()), getClass().getClassLoader());
+        for (String region : BOUNDED_REGIONS) {
+            String prefix = "frameworks.entity-cache." + region;
+            CaffeineConfiguration<Object, Object> configuration = regionConfiguration();
+            configuration.setMaximumSize(OptionalLong.of(
+                    environment.getRequiredProperty(prefix + ".max-size", Long.class)
+            ));
+            configuration.setExpireAfterWrite(OptionalLong.of(
+                    environment.getRequiredProperty(prefix + ".ttl", Duration.class).toNanos()
+            ));
+            cacheManager.createCache(region, configuration);
+        }
+        cacheManager.createCache(UPDATE_TIMESTAMPS_REGION, regionConfiguration());
+        return cacheManager;
+    }
+
+    private static CaffeineConfiguration<Object, Object> regionConfiguration() {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        // Hibernate caches immutable entries, copying them on every access would be a waste
+        configuration.setStoreByValue(false);
+        configuration.setStatisticsEnabled(true);
+        return configuration;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer entityCacheCustomizer(CacheManager entityCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, entityCacheManager);
+            // Every region has to be configured above
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+}
@@ -1,12 +1,18 @@
 package cz.eg.hr.config;
 
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 
 /**
  * Support for serialization of LocalDate for ObjectMapper.
+ * <p>
+ * Responses are written also as CBOR when the client accepts it. The CBOR mapper is built by the same builder as the
+ * JSON one, so both have the same modules and features and write the same properties.
  */
 @Configuration
 public class JacksonConfig {
@@ -17,4 +23,9 @@ public class JacksonConfig {
             builder.modules(new JavaTimeModule());
         };
     }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
 }
@@ -0,0 +1,71 @@
+package cz.eg.hr.config;
+
+import cz.eg.hr.data.JavascriptFramework;
+import cz.eg.hr.metrics.SqlCountFilter;
+import cz.eg.hr.metrics.SqlStatementCounter;
+import cz.eg.hr.service.IndexingOutbox;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.search.backend.lucene.index.LuceneIndexManager;
+import org.hibernate.search.mapper.orm.Search;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Metrics which are not provided by Spring Boot itself: timers of methods annotated by {@code @Timed}, indexing lag,
+ * size of the index and number of SQL statements per request. Hibernate statistics are bound by Spring Boot
+ * when {@code hibernate.generate_statistics} is enabled.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer metricsCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new SqlStatementCounter());
+    }
+
+    @Bean
+    public FilterRegistrationBean<SqlCountFilter> sqlCountFilter(
+            MeterRegistry meterRegistry,
+            @Value("${frameworks.metrics.sql-warn-threshold}") int warnThreshold
+    ) {
+        return new FilterRegistrationBean<>(new SqlCountFilter(meterRegistry, warnThreshold));
+    }
+
+    @Bean
+    public MeterBinder searchIndexSize(EntityManagerFactory entityManagerFactory) {
+        return registry -> Gauge.builder("search.index.size", entityManagerFactory, emf -> Search.mapping(emf)
+                        .indexedEntity(JavascriptFramework.class)
+                        .indexManager()
+                        .unwrap(LuceneIndexManager.class)
+                        .computeSizeInBytes())
+                .description("Size of the fulltext index of frameworks")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    @Bean
+    public MeterBinder indexingLag(IndexingOutbox indexingOutbox) {
+        return registry -> {
+            Gauge.builder("search.indexing.lag", indexingOutbox, o -> o.lag().toNanos() / 1e9)
+                    .description("Age of the oldest change waiting for indexing")
+                    .baseUnit("seconds")
+                    .register(registry);
+            Gauge.builder("search.indexing.pending", indexingOutbox, IndexingOutbox::pendingEvents)
+                    .description("Number of changes waiting for indexing")
+                    .register(registry);
+        };
+    }
+}
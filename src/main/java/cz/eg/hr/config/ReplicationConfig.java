@@ -0,0 +1,25 @@
+package cz.eg.hr.config;
+
+import cz.eg.hr.controller.ReplicaWriteFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Replica node, enabled by {@code frameworks.replication.role=replica}. Writes are redirected to the primary at
+ * {@code frameworks.replication.primary-url}, changes of the primary are applied by
+ * {@link cz.eg.hr.service.ReplicaSync}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "frameworks.replication.role", havingValue = "replica")
+public class ReplicationConfig {
+
+    @Bean
+    public FilterRegistrationBean<ReplicaWriteFilter> replicaWriteFilter(
+            @Value("${frameworks.replication.primary-url}") String primaryUrl
+    ) {
+        return new FilterRegistrationBean<>(new ReplicaWriteFilter(primaryUrl));
+    }
+}
@@ -0,0 +1,43 @@
+package cz.eg.hr.config;
+
+import org.apache.lucene.analysis.core.LowerCaseFilterFactory;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilterFactory;
+import org.apache.lucene.analysis.ngram.EdgeNGramFilterFactory;
+import org.apache.lucene.analysis.standard.StandardTokenizerFactory;
+import org.hibernate.search.backend.lucene.analysis.LuceneAnalysisConfigurationContext;
+import org.hibernate.search.backend.lucene.analysis.LuceneAnalysisConfigurer;
+
+/**
+ * Custom analyzers of the fulltext index.
+ * <p>
+ * Autocomplete indexes every prefix of every word (edge n-grams), so a search for a partially typed word is a plain
+ * term lookup instead of a prefix or wildcard query. Lowercase normalizer is used for case insensitive sorting.
+ */
+public class SearchAnalysisConfigurer implements LuceneAnalysisConfigurer {
+
+    public static final String AUTOCOMPLETE_INDEXING = "autocomplete_indexing";
+
+    public static final String AUTOCOMPLETE_SEARCH = "autocomplete_search";
+
+    public static final String LOWERCASE = "lowercase";
+
+    @Override
+    public void configure(LuceneAnalysisConfigurationContext context) {
+        context.analyzer(AUTOCOMPLETE_INDEXING).custom()
+                .tokenizer(StandardTokenizerFactory.class)
+                .tokenFilter(LowerCaseFilterFactory.class)
+                .tokenFilter(ASCIIFoldingFilterFactory.class)
+                .tokenFilter(EdgeNGramFilterFactory.class)
+                .param("minGramSize", "1")
+                .param("maxGramSize", "20");
+
+        context.analyzer(AUTOCOMPLETE_SEARCH).custom()
+                .tokenizer(StandardTokenizerFactory.class)
+                .tokenFilter(LowerCaseFilterFactory.class)
+                .tokenFilter(ASCIIFoldingFilterFactory.class);
+
+        context.normalizer(LOWERCASE).custom()
+                .tokenFilter(LowerCaseFilterFactory.class)
+                .tokenFilter(ASCIIFoldingFilterFactory.class);
+    }
+}
@@ -0,0 +1,54 @@
+package cz.eg.hr.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Opt-in handling of requests on virtual threads, enabled by {@code frameworks.virtual-threads.enabled}. Tomcat runs
+ * every request on a new virtual thread instead of a thread from its pool, and so do asynchronous requests like the
+ * NDJSON export. Threads blocked on JDBC or the index then don't limit the number of concurrent requests, the size of
+ * the connection pool does.
+ * <p>
+ * Virtual threads need Java 21. The executor is looked up reflectively, so the application still builds and runs on
+ * Java 17 with the mode disabled, enabling it there fails the startup.
+ */
+@Configuration
+@ConditionalOnProperty(name = "frameworks.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadsConfig implements WebMvcConfigurer, DisposableBean {
+
+    private final ExecutorService executor = newVirtualThreadPerTaskExecutor();
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadsCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(new TaskExecutorAdapter(executor));
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("Virtual threads need Java 21, running on " + Runtime.version() + ".", e);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Executor of virtual threads can't be created.", e);
+        }
+    }
+}
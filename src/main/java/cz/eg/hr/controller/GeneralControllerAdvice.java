@@ -2,8 +2,11 @@ package cz.eg.hr.controller;
 
 import cz.eg.hr.rest.Errors;
 import cz.eg.hr.rest.ValidationError;
+import jakarta.validation.ConstraintViolationException;
 import java.util.List;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -23,6 +26,15 @@ public class GeneralControllerAdvice {
         return ResponseEntity.badRequest().body(new Errors(errorList));
     }
 
+    @ExceptionHandler(ConstraintViolationException.class)
+    public ResponseEntity<Errors> handleValidationException(ConstraintViolationException ex) {
+        List<ValidationError> errorList = ex.getConstraintViolations().stream()
+                .map(v -> new ValidationError(v.getPropertyPath().toString(), v.getMessage()))
+                .toList();
+
+        return ResponseEntity.badRequest().body(new Errors(errorList));
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<Errors> handleValidationException(IllegalArgumentException ex) {
         List<ValidationError> errorList = List.of(new ValidationError(null, ex.getMessage()));
@@ -35,4 +47,10 @@ public class GeneralControllerAdvice {
         return ResponseEntity.badRequest().body(new Errors(errorList));
     }
 
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Errors> handleConcurrentModification(OptimisticLockingFailureException ex) {
+        List<ValidationError> errorList = List.of(new ValidationError(null, ex.getMessage()));
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(new Errors(errorList));
+    }
+
 }
@@ -1,58 +1,520 @@
 package cz.eg.hr.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import cz.eg.hr.data.CatalogueRevision;
+import cz.eg.hr.data.FrameworkVersion;
 import cz.eg.hr.data.JavascriptFramework;
+import cz.eg.hr.rest.BatchItemResult;
+import cz.eg.hr.rest.ChangePage;
+import cz.eg.hr.rest.FrameworkView;
+import cz.eg.hr.rest.SearchQuery;
+import cz.eg.hr.rest.SearchSort;
+import cz.eg.hr.rest.Vote;
+import cz.eg.hr.rest.VoteSummary;
+import cz.eg.hr.service.ChangeFeed;
+import cz.eg.hr.service.ContentCoding;
+import cz.eg.hr.service.FrameworkResponseCache;
+import cz.eg.hr.service.FrameworkResponseCache.Response;
+import cz.eg.hr.service.FrameworkResponseCache.Variant;
+import cz.eg.hr.service.IndexingOutbox;
 import cz.eg.hr.service.JavascriptFrameworkService;
+import cz.eg.hr.service.ResponseFormat;
+import cz.eg.hr.service.VoteTally;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+/**
+ * Cached GET responses are negotiated by {@code Accept} as JSON or CBOR and by {@code Accept-Encoding} as zstd, gzip or
+ * uncompressed. Other responses are written by the message converters, which also offer CBOR. Every variant has its
+ * own strong ETag, so a cache revalidating one of them can't get the other format or compression confirmed.
+ */
 @RestController
 public class JavascriptFrameworkController {
 
+    private static final String MERGE_PATCH_JSON_VALUE = "application/merge-patch+json";
+
+    private static final Variant DEFAULT_VARIANT = new Variant(ResponseFormat.JSON, ContentCoding.IDENTITY);
+
+    /**
+     * ETag of a framework, its revision and the variant.
+     */
+    private static final Pattern REVISION_TAG = Pattern.compile("\"(\\d+)(?:-[a-z]+)*\"");
+
     private final JavascriptFrameworkService javascriptFrameworkService;
 
+    private final ObjectMapper objectMapper;
+
+    private final FrameworkResponseCache responseCache;
+
+    private final IndexingOutbox indexingOutbox;
+
+    private final ChangeFeed changeFeed;
+
+    private final VoteTally voteTally;
+
     @Autowired
     public JavascriptFrameworkController(
-            JavascriptFrameworkService javascriptFrameworkService
+            JavascriptFrameworkService javascriptFrameworkService,
+            ObjectMapper objectMapper,
+            FrameworkResponseCache responseCache,
+            IndexingOutbox indexingOutbox,
+            ChangeFeed changeFeed,
+            VoteTally voteTally
     ) {
         this.javascriptFrameworkService = javascriptFrameworkService;
+        this.objectMapper = objectMapper;
+        this.responseCache = responseCache;
+        this.indexingOutbox = indexingOutbox;
+        this.changeFeed = changeFeed;
+        this.voteTally = voteTally;
     }
 
+    /**
+     * The list is tagged by the revision of the whole catalogue, {@code If-None-Match} with the current tag is answered
+     * by 304 without loading the frameworks.
+     */
     @GetMapping("/frameworks")
-    public Iterable<JavascriptFramework> frameworks() {
-        return javascriptFrameworkService.listAll();
+    public ResponseEntity<byte[]> frameworks(WebRequest request) {
+        return conditional(request, catalogueETag(), variant ->
+                responseCache.page("frameworks", variant, javascriptFrameworkService::listAll)
+        );
+    }
+
+    /**
+     * Latest version and support status of every framework without their versions. Tagged like the list, refreshes of
+     * summaries after a deprecation date passes increment revisions too.
+     */
+    @GetMapping("/frameworks/summary")
+    public ResponseEntity<byte[]> frameworkSummaries(WebRequest request) {
+        return conditional(request, catalogueETag(), variant ->
+                responseCache.page("summary", variant, javascriptFrameworkService::listSummaries)
+        );
+    }
+
+    /**
+     * The framework is tagged by the revision it was read at together with the cached body, so the tag always matches
+     * the body. {@code If-None-Match} with the current tag is answered by 304 from the cache.
+     */
+    @GetMapping("/frameworks/{id}")
+    public ResponseEntity<byte[]> framework(@PathVariable Long id, WebRequest request) {
+        Variant variant = variant(request);
+        Response response = responseCache.framework(id, variant, () -> javascriptFrameworkService.getView(id));
+        String tag = revisionETag(response.revision(), variant);
+        if (request.checkNotModified(tag)) {
+            // Status 304 and headers are already set
+            return null;
+        }
+        return body(ResponseEntity.ok().eTag(tag), response);
+    }
+
+    /**
+     * Keyset paginated variant of the listing, selected by the {@code limit} parameter.
+     */
+    @GetMapping(path = "/frameworks", params = "limit")
+    public ResponseEntity<byte[]> frameworksPage(
+            @RequestParam(required = false) Long after,
+            @RequestParam int limit,
+            WebRequest request
+    ) {
+        return conditional(request, catalogueETag(), variant -> responseCache.page(
+                Arrays.asList("frameworks", after, limit),
+                variant,
+                () -> javascriptFrameworkService.listAll(after, limit)
+        ));
+    }
+
+    /**
+     * Export of the whole catalogue as newline delimited JSON. Frameworks are written as they are read from the
+     * database and the output is flushed after every chunk. It's compressed as it's written when the client accepts
+     * zstd or gzip.
+     */
+    @GetMapping(path = "/frameworks/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportFrameworks(WebRequest request) {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        ContentCoding coding = ContentCoding.negotiate(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        StreamingResponseBody body = out -> {
+            try (
+                OutputStream compressed = coding.wrap(out);
+                JsonGenerator generator = objectMapper.createGenerator(compressed)
+            ) {
+                generator.setRootValueSeparator(null);
+                javascriptFrameworkService.exportAll(chunk -> {
+                    try {
+                        for (FrameworkView framework : chunk) {
+                            writer.writeValue(generator, framework);
+                            generator.writeRaw('\n');
+                        }
+                        generator.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (coding != ContentCoding.IDENTITY) {
+            response.header(HttpHeaders.CONTENT_ENCODING, coding.getToken());
+        }
+        return response.body(body);
+    }
+
+    /**
+     * Changes of the catalogue following the {@code since} sequence number, for clients keeping their own copy in sync.
+     * Deletes are reported as tombstones without the framework.
+     */
+    @GetMapping("/frameworks/changes")
+    public ChangePage changes(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestParam(defaultValue = "100") int limit
+    ) {
+        return javascriptFrameworkService.listChanges(since, limit);
     }
 
+    /**
+     * The same changes as Server-Sent Events, new changes are sent as they are committed. A reconnecting client
+     * continues after the {@code Last-Event-ID} it has seen.
+     */
+    @GetMapping(path = "/frameworks/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter changeStream(
+            @RequestParam(defaultValue = "0") long since,
+            @RequestHeader(name = "Last-Event-ID", required = false) Long lastEventId
+    ) {
+        return changeFeed.subscribe(lastEventId == null ? since : lastEventId);
+    }
+
+    /**
+     * Changes are indexed in background, so searches may not see them immediately. With {@code waitForIndex} the
+     * response is sent once the change is searchable, or with status 202 when indexing takes too long.
+     */
     @PostMapping("/frameworks")
-    public JavascriptFramework createFramework(
-            @Validated @RequestBody JavascriptFramework framework
+    public ResponseEntity<JavascriptFramework> createFramework(
+            @Validated @RequestBody JavascriptFramework framework,
+            @RequestParam(defaultValue = "false") boolean waitForIndex
+    ) {
+        JavascriptFramework created = javascriptFrameworkService.create(framework);
+        return ResponseEntity.status(indexedStatus(waitForIndex)).body(created);
+    }
+
+    /**
+     * Creates or updates many frameworks at once, items with ID are updated. Every item gets its own result, an invalid
+     * item doesn't fail the whole request.
+     */
+    @PostMapping("/frameworks/batch")
+    public ResponseEntity<List<BatchItemResult>> saveFrameworks(
+            @RequestBody List<JavascriptFramework> frameworks,
+            @RequestParam(defaultValue = "false") boolean waitForIndex
     ) {
-        return javascriptFrameworkService.create(framework);
+        List<BatchItemResult> results = javascriptFrameworkService.saveAll(frameworks);
+        return ResponseEntity.status(indexedStatus(waitForIndex)).body(results);
     }
 
+    /**
+     * With {@code If-Match} the framework is replaced only when it still has the given ETag, otherwise 412 is returned.
+     */
     @PutMapping("/frameworks/{id}")
-    public JavascriptFramework updateFramework(
+    public ResponseEntity<JavascriptFramework> updateFramework(
+            @PathVariable Long id,
+            @Validated @RequestBody JavascriptFramework framework,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestParam(defaultValue = "false") boolean waitForIndex
+    ) {
+        JavascriptFramework updated = javascriptFrameworkService.update(id, framework, parseRevision(ifMatch));
+        return ResponseEntity.status(indexedStatus(waitForIndex))
+                .eTag(revisionETag(updated.getRevision(), uncompressed(accept)))
+                .body(updated);
+    }
+
+    /**
+     * JSON Merge Patch of the framework, only the given properties are changed. {@code If-Match} is handled like by
+     * PUT.
+     */
+    @PatchMapping(path = "/frameworks/{id}", consumes = {MERGE_PATCH_JSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<JavascriptFramework> patchFramework(
             @PathVariable Long id,
-            @Validated @RequestBody JavascriptFramework framework
+            @RequestBody JsonNode patch,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestParam(defaultValue = "false") boolean waitForIndex
     ) {
-        return javascriptFrameworkService.update(id, framework);
+        JavascriptFramework patched = javascriptFrameworkService.patch(id, patch, parseRevision(ifMatch));
+        return ResponseEntity.status(indexedStatus(waitForIndex))
+                .eTag(revisionETag(patched.getRevision(), uncompressed(accept)))
+                .body(patched);
+    }
+
+    /**
+     * Adds a version without rewriting the others, the response has the new ETag of the framework.
+     */
+    @PostMapping("/frameworks/{id}/versions")
+    public ResponseEntity<FrameworkVersion> addVersion(
+            @PathVariable Long id,
+            @RequestBody FrameworkVersion version,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestParam(defaultValue = "false") boolean waitForIndex
+    ) {
+        FrameworkVersion added = javascriptFrameworkService.addVersion(id, version, parseRevision(ifMatch));
+        return ResponseEntity.status(indexedStatus(waitForIndex))
+                .eTag(revisionETag(added.getFramework().getRevision(), uncompressed(accept)))
+                .body(added);
+    }
+
+    @DeleteMapping("/frameworks/{id}/versions/{versionId}")
+    public ResponseEntity<Void> deleteVersion(
+            @PathVariable Long id,
+            @PathVariable Long versionId,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestParam(defaultValue = "false") boolean waitForIndex
+    ) {
+        JavascriptFramework framework = javascriptFrameworkService.deleteVersion(id, versionId, parseRevision(ifMatch));
+        return ResponseEntity.status(indexedStatus(waitForIndex))
+                .eTag(revisionETag(framework.getRevision(), DEFAULT_VARIANT))
+                .build();
+    }
+
+    /**
+     * Vote of a user, one to five stars. Votes are counted in memory and stored in batches, neither the vote nor the
+     * summary in the response touches the framework or the database.
+     */
+    @PostMapping("/frameworks/{id}/votes")
+    public ResponseEntity<VoteSummary> vote(@PathVariable Long id, @Validated @RequestBody Vote vote) {
+        voteTally.vote(id, vote.stars());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(voteTally.summary(id));
+    }
+
+    /**
+     * Number of votes, their average and numbers of votes by stars, including votes not stored yet.
+     */
+    @GetMapping("/frameworks/{id}/votes")
+    public VoteSummary votes(@PathVariable Long id) {
+        return voteTally.summary(id);
     }
 
     @DeleteMapping("/frameworks/{id}")
-    public void deleteFramework(@PathVariable Long id) {
+    public ResponseEntity<Void> deleteFramework(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "false") boolean waitForIndex
+    ) {
         javascriptFrameworkService.delete(id);
+        return ResponseEntity.status(indexedStatus(waitForIndex)).build();
     }
 
+    /**
+     * Concurrent searches for the same normalized text are executed once and share the result, which is then served
+     * from the cache for a few seconds.
+     */
     @GetMapping("/frameworks/search")
-    public List<JavascriptFramework> fulltextSearch(@RequestParam String text) {
-        return javascriptFrameworkService.fulltextSearch(text);
+    public ResponseEntity<byte[]> fulltextSearch(@RequestParam String text, WebRequest request) {
+        String normalized = SearchQuery.normalizeText(text);
+        return ok(responseCache.search(
+                List.of("search", normalized),
+                variant(request),
+                () -> javascriptFrameworkService.fulltextSearch(normalized)
+        ));
+    }
+
+    /**
+     * Paginated variant of the fulltext search with filters, sorting and facets, selected by the {@code limit}
+     * parameter. With {@code projection} set the hits contain only fields stored in the index and the database is not
+     * queried.
+     */
+    @GetMapping(path = "/frameworks/search", params = "limit")
+    public ResponseEntity<byte[]> fulltextSearchPage(
+            @RequestParam(required = false) String text,
+            @RequestParam(required = false) Integer minRating,
+            @RequestParam(required = false) Integer maxRating,
+            @RequestParam(required = false) Boolean supported,
+            @RequestParam(defaultValue = "RELEVANCE") SearchSort sort,
+            @RequestParam(defaultValue = "false") boolean facets,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam int limit,
+            @RequestParam(defaultValue = "false") boolean projection,
+            WebRequest request
+    ) {
+        SearchQuery query = new SearchQuery(text, minRating, maxRating, supported, sort, facets, offset, limit);
+        return ok(responseCache.search(List.of("search", query, projection), variant(request), () -> projection
+                ? javascriptFrameworkService.fulltextSearchProjection(query)
+                : javascriptFrameworkService.fulltextSearch(query)
+        ));
+    }
+
+    /**
+     * Versions going out of support between the given days, both inclusive, ordered by deprecation date. The first day
+     * is today by default.
+     */
+    @GetMapping("/versions/deprecating")
+    public ResponseEntity<byte[]> deprecatingVersions(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "100") int limit,
+            WebRequest request
+    ) {
+        LocalDate start = from == null ? LocalDate.now() : from;
+        return ok(responseCache.page(
+                Arrays.asList("deprecating", start, to, after, limit),
+                variant(request),
+                () -> javascriptFrameworkService.listDeprecating(start, to, after, limit)
+        ));
+    }
+
+    /**
+     * Semantic versions of all frameworks in an npm style range like {@code ^18 || >=2.0 <3}, in semantic versioning
+     * order.
+     */
+    @GetMapping("/versions")
+    public ResponseEntity<byte[]> versions(
+            @RequestParam String range,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "100") int limit,
+            WebRequest request
+    ) {
+        return ok(responseCache.page(
+                Arrays.asList("versions", range, after, limit),
+                variant(request),
+                () -> javascriptFrameworkService.listVersions(range, after, limit)
+        ));
+    }
+
+    @GetMapping("/frameworks/suggest")
+    public ResponseEntity<byte[]> suggest(
+            @RequestParam String text,
+            @RequestParam(defaultValue = "10") int limit,
+            WebRequest request
+    ) {
+        String normalized = SearchQuery.normalizeText(text);
+        return ok(responseCache.search(
+                List.of("suggest", normalized, limit),
+                variant(request),
+                () -> javascriptFrameworkService.suggest(normalized, limit)
+        ));
+    }
+
+    private static ResponseEntity<byte[]> ok(Response response) {
+        return body(ResponseEntity.ok(), response);
+    }
+
+    private static ResponseEntity<byte[]> body(ResponseEntity.BodyBuilder builder, Response response) {
+        builder.contentType(response.format().getMediaType()).varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+        if (response.coding() != ContentCoding.IDENTITY) {
+            builder.header(HttpHeaders.CONTENT_ENCODING, response.coding().getToken());
+        }
+        return builder.body(response.body());
+    }
+
+    private static Variant variant(WebRequest request) {
+        return new Variant(
+                ResponseFormat.negotiate(request.getHeader(HttpHeaders.ACCEPT)),
+                ContentCoding.negotiate(request.getHeader(HttpHeaders.ACCEPT_ENCODING))
+        );
+    }
+
+    private HttpStatus indexedStatus(boolean waitForIndex) {
+        return !waitForIndex || indexingOutbox.awaitIndexed() ? HttpStatus.OK : HttpStatus.ACCEPTED;
+    }
+
+    /**
+     * Response tagged by {@code eTag} of the negotiated variant, or 304 when the client has that variant already.
+     */
+    private static ResponseEntity<byte[]> conditional(
+            WebRequest request,
+            Function<Variant, String> eTag,
+            Function<Variant, Response> body
+    ) {
+        Variant variant = variant(request);
+        String tag = eTag.apply(variant);
+        if (request.checkNotModified(tag)) {
+            // Status 304 and headers are already set
+            return null;
+        }
+        return body(ResponseEntity.ok().eTag(tag), body.apply(variant));
+    }
+
+    private Function<Variant, String> catalogueETag() {
+        CatalogueRevision revision = javascriptFrameworkService.getCatalogueRevision();
+        String base = revision.count() + "-" + revision.maxId() + "-" + revision.revisionSum();
+        return variant -> eTag(base, variant);
+    }
+
+    private static String revisionETag(Long revision, Variant variant) {
+        return eTag(revision.toString(), variant);
+    }
+
+    /**
+     * Strong ETag of a variant of the resource, every format and compression has its own, like {@code "7-cbor-zstd"}.
+     * Uncompressed JSON is tagged by the revision alone.
+     */
+    private static String eTag(String base, Variant variant) {
+        StringBuilder tag = new StringBuilder("\"").append(base);
+        if (variant.format() != ResponseFormat.JSON) {
+            tag.append('-').append(variant.format().name().toLowerCase(Locale.ROOT));
+        }
+        if (variant.coding() != ContentCoding.IDENTITY) {
+            tag.append('-').append(variant.coding().getToken());
+        }
+        return tag.append('"').toString();
+    }
+
+    /**
+     * Variant of a response written by a message converter, which doesn't compress.
+     */
+    private static Variant uncompressed(String accept) {
+        return new Variant(ResponseFormat.negotiate(accept), ContentCoding.IDENTITY);
+    }
+
+    /**
+     * Revision from the {@code If-Match} header, {@code null} when any revision matches. Tags of all variants of the
+     * framework match its revision.
+     */
+    private static Long parseRevision(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        Matcher matcher = REVISION_TAG.matcher(tag);
+        if (matcher.matches()) {
+            try {
+                return Long.valueOf(matcher.group(1));
+            } catch (NumberFormatException e) {
+                // Not our tag, it can't match
+            }
+        }
+        throw new OptimisticLockingFailureException("ETag " + tag + " doesn't match the current revision.");
     }
 }
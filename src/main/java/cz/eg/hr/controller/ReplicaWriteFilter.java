@@ -0,0 +1,41 @@
+package cz.eg.hr.controller;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.util.Set;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Redirects writes of frameworks received by a replica to the primary by status 307, so the client repeats the same
+ * request with its body there. Reads and administration of the local index are handled by the replica.
+ */
+public class ReplicaWriteFilter extends OncePerRequestFilter {
+
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE");
+
+    private final String primaryUrl;
+
+    public ReplicaWriteFilter(String primaryUrl) {
+        this.primaryUrl = primaryUrl.endsWith("/") ? primaryUrl.substring(0, primaryUrl.length() - 1) : primaryUrl;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return SAFE_METHODS.contains(request.getMethod())
+                || !request.getRequestURI().startsWith(request.getContextPath() + "/frameworks");
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) {
+        String query = request.getQueryString();
+        String location = primaryUrl + request.getRequestURI() + (query == null ? "" : "?" + query);
+        response.setStatus(HttpServletResponse.SC_TEMPORARY_REDIRECT);
+        response.setHeader(HttpHeaders.LOCATION, location);
+    }
+}
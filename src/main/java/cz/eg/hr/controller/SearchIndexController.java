@@ -0,0 +1,40 @@
+package cz.eg.hr.controller;
+
+import cz.eg.hr.rest.ReindexStatus;
+import cz.eg.hr.service.SearchIndexRebuilder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+public class SearchIndexController {
+
+    private final SearchIndexRebuilder searchIndexRebuilder;
+
+    @Autowired
+    public SearchIndexController(SearchIndexRebuilder searchIndexRebuilder) {
+        this.searchIndexRebuilder = searchIndexRebuilder;
+    }
+
+    /**
+     * Starts a rebuild of the fulltext index in background, its progress is available by GET on the same path.
+     * Answered by 409 with the progress of the running rebuild when one is already running.
+     */
+    @PostMapping("/admin/search/reindex")
+    public ResponseEntity<ReindexStatus> reindex() {
+        ReindexStatus started = searchIndexRebuilder.start();
+        if (started == null) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(searchIndexRebuilder.status());
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(started);
+    }
+
+    @GetMapping("/admin/search/reindex")
+    public ResponseEntity<ReindexStatus> reindexStatus() {
+        ReindexStatus status = searchIndexRebuilder.status();
+        return status == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(status);
+    }
+}
@@ -0,0 +1,8 @@
+package cz.eg.hr.data;
+
+/**
+ * Aggregate that changes with every change of the framework catalogue. Revisions only grow and IDs are never reused,
+ * so an insert raises the maximal ID, an update raises the sum of revisions and a delete lowers the count.
+ */
+public record CatalogueRevision(Long count, Long maxId, Long revisionSum) {
+}
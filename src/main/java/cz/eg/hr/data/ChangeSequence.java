@@ -0,0 +1,27 @@
+package cz.eg.hr.data;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+
+/**
+ * The last sequence number of the change log, a single row. Transactions lock it to number their changes, which
+ * orders them by commit.
+ */
+@Entity
+public class ChangeSequence {
+
+    public static final int ID = 1;
+
+    @Id
+    private Integer id = ID;
+
+    private long lastSeq;
+
+    public long next() {
+        return ++lastSeq;
+    }
+
+    public long getLastSeq() {
+        return lastSeq;
+    }
+}
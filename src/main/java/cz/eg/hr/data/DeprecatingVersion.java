@@ -0,0 +1,15 @@
+package cz.eg.hr.data;
+
+import java.time.LocalDate;
+
+/**
+ * Version going out of support on its deprecation date, with the framework it belongs to.
+ */
+public record DeprecatingVersion(
+        Long id,
+        String version,
+        LocalDate deprecationDate,
+        Long frameworkId,
+        String frameworkName
+) {
+}
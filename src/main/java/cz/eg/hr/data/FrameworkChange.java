@@ -0,0 +1,59 @@
+package cz.eg.hr.data;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import java.time.Instant;
+
+/**
+ * Record of the change log. Sequence numbers are assigned in the order of commits, a delete is recorded as a tombstone
+ * of the framework.
+ */
+@Entity
+public class FrameworkChange {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    @Id
+    private Long seq;
+
+    @Column(nullable = false)
+    private Long frameworkId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Type type;
+
+    @Column(nullable = false)
+    private Instant changedAt;
+
+    public FrameworkChange() {
+    }
+
+    public FrameworkChange(Long seq, Long frameworkId, Type type, Instant changedAt) {
+        this.seq = seq;
+        this.frameworkId = frameworkId;
+        this.type = type;
+        this.changedAt = changedAt;
+    }
+
+    public Long getSeq() {
+        return seq;
+    }
+
+    public Long getFrameworkId() {
+        return frameworkId;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Instant getChangedAt() {
+        return changedAt;
+    }
+}
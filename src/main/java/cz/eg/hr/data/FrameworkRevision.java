@@ -0,0 +1,7 @@
+package cz.eg.hr.data;
+
+/**
+ * Revision of a framework, in the database or in the fulltext index.
+ */
+public record FrameworkRevision(Long id, long revision) {
+}
@@ -0,0 +1,16 @@
+package cz.eg.hr.data;
+
+import java.time.LocalDate;
+
+/**
+ * Latest version and support status of a framework, read from the framework row alone. {@code nextDeprecationDate}
+ * is {@code null} when no supported version has a deprecation date.
+ */
+public record FrameworkSummary(
+        Long id,
+        String name,
+        String latestVersion,
+        int supportedVersions,
+        LocalDate nextDeprecationDate
+) {
+}
@@ -2,22 +2,53 @@ package cz.eg.hr.data;
 
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import cz.eg.hr.config.EntityCacheConfig;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
 import jakarta.persistence.Temporal;
 import jakarta.persistence.TemporalType;
 import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.Optional;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 
 @Entity
+// Queries of versions deprecated in a period and of versions in a range read the index in the order of their results
+@Table(indexes = {
+    @Index(name = "framework_version_deprecation", columnList = "deprecationDate, id"),
+    @Index(name = "framework_version_semver", columnList = "major, minor, patch, preReleaseKey, id")
+})
+@DynamicUpdate
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = EntityCacheConfig.VERSION_REGION)
 public class FrameworkVersion {
 
+    /**
+     * Semantic versioning order, the order of the parsed columns in the database. Versions which are not semantic
+     * versions come first, ties are ordered by the version string.
+     */
+    public static final Comparator<FrameworkVersion> ORDER = Comparator
+            .comparing(FrameworkVersion::getMajor, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(FrameworkVersion::getMinor, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(FrameworkVersion::getPatch, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(FrameworkVersion::getPreReleaseKey, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(FrameworkVersion::getVersion, Comparator.nullsFirst(Comparator.naturalOrder()));
+
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "framework_version_seq")
+    @SequenceGenerator(name = "framework_version_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -30,11 +61,31 @@ public class FrameworkVersion {
     @Temporal(TemporalType.DATE)
     private LocalDate deprecationDate;
 
+    /**
+     * The version parsed as {@link SemanticVersion}, all {@code null} when it's not a semantic version. Set with the
+     * version, so range queries and ordering are evaluated by the database.
+     */
+    @JsonIgnore
+    private Integer major;
+
+    @JsonIgnore
+    private Integer minor;
+
+    @JsonIgnore
+    private Integer patch;
+
+    /**
+     * {@link SemanticVersion#preReleaseKey()}
+     */
+    @Column(length = 40)
+    @JsonIgnore
+    private String preReleaseKey;
+
     public FrameworkVersion() {
     }
 
     public FrameworkVersion(String version, LocalDate deprecationDate) {
-        this.version = version;
+        setVersion(version);
         this.deprecationDate = deprecationDate;
     }
 
@@ -60,6 +111,11 @@ public class FrameworkVersion {
 
     public void setVersion(String version) {
         this.version = version;
+        Optional<SemanticVersion> parsed = SemanticVersion.tryParse(version);
+        major = parsed.map(SemanticVersion::major).orElse(null);
+        minor = parsed.map(SemanticVersion::minor).orElse(null);
+        patch = parsed.map(SemanticVersion::patch).orElse(null);
+        preReleaseKey = parsed.map(SemanticVersion::preReleaseKey).orElse(null);
     }
 
     public LocalDate getDeprecationDate() {
@@ -70,6 +126,22 @@ public class FrameworkVersion {
         this.deprecationDate = deprecationDate;
     }
 
+    public Integer getMajor() {
+        return major;
+    }
+
+    public Integer getMinor() {
+        return minor;
+    }
+
+    public Integer getPatch() {
+        return patch;
+    }
+
+    public String getPreReleaseKey() {
+        return preReleaseKey;
+    }
+
     @Override
     public String toString() {
         return framework.getName() + " " + version;
@@ -0,0 +1,19 @@
+package cz.eg.hr.data;
+
+import java.time.LocalDate;
+
+/**
+ * Framework joined with one of its versions, a row of the projection the read model is built from. Version fields are
+ * {@code null} for a framework without versions.
+ */
+public record FrameworkVersionRow(
+        Long id,
+        String name,
+        String description,
+        Integer rating,
+        long revision,
+        Long versionId,
+        String version,
+        LocalDate deprecationDate
+) {
+}
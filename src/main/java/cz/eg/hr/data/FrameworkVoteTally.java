@@ -0,0 +1,39 @@
+package cz.eg.hr.data;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+
+/**
+ * Numbers of user votes for a framework by stars. Kept apart from the framework and updated by batched MERGE
+ * statements, so votes never lock the row of the framework.
+ */
+@Entity
+public class FrameworkVoteTally {
+
+    @Id
+    private Long frameworkId;
+
+    private long stars1;
+
+    private long stars2;
+
+    private long stars3;
+
+    private long stars4;
+
+    private long stars5;
+
+    public FrameworkVoteTally() {
+    }
+
+    public Long getFrameworkId() {
+        return frameworkId;
+    }
+
+    /**
+     * Numbers of votes by stars, the first element is the number of votes with one star.
+     */
+    public long[] getVotes() {
+        return new long[] {stars1, stars2, stars3, stars4, stars5};
+    }
+}
@@ -1,48 +1,123 @@
 package cz.eg.hr.data;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
+import cz.eg.hr.config.EntityCacheConfig;
+import cz.eg.hr.config.SearchAnalysisConfigurer;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.search.mapper.pojo.mapping.definition.annotation.FullTextField;
+import org.hibernate.search.engine.backend.types.Aggregable;
+import org.hibernate.search.engine.backend.types.Projectable;
+import org.hibernate.search.engine.backend.types.Sortable;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.GenericField;
 import org.hibernate.search.mapper.pojo.mapping.definition.annotation.Indexed;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.IndexingDependency;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.KeywordField;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.ObjectPath;
+import org.hibernate.search.mapper.pojo.mapping.definition.annotation.PropertyValue;
+import org.hibernate.search.mapper.pojo.automaticindexing.ReindexOnUpdate;
 
 @Entity
 @Indexed
+// Outdated summaries are looked up at startup, which shouldn't scan the whole table
+@Table(indexes = @Index(name = "javascript_framework_next_deprecation", columnList = "nextDeprecationDate"))
+// Updates contain only the changed columns
+@DynamicUpdate
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = EntityCacheConfig.FRAMEWORK_REGION)
 public class JavascriptFramework {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "javascript_framework_seq")
+    @SequenceGenerator(name = "javascript_framework_seq", allocationSize = 50)
+    // Sortable, so the index can be compared with the database in ID order
+    @GenericField(sortable = Sortable.YES)
     private Long id;
 
     @NotNull
     @Column(unique = true, nullable = false, length = 30)
-    @FullTextField
+    @FullTextField(projectable = Projectable.YES)
+    @FullTextField(
+            name = "name_autocomplete",
+            analyzer = SearchAnalysisConfigurer.AUTOCOMPLETE_INDEXING,
+            searchAnalyzer = SearchAnalysisConfigurer.AUTOCOMPLETE_SEARCH
+    )
+    @KeywordField(name = "name_sort", sortable = Sortable.YES, normalizer = SearchAnalysisConfigurer.LOWERCASE)
     private String name;
 
     @Column(nullable = true, length = 1000)
-    @FullTextField
+    @FullTextField(projectable = Projectable.YES)
     private String description;
 
     @NotNull
     @Min(value = 1, message = "must be between 1 and 5")
     @Max(value = 5, message = "must be between 1 and 5")
     @Column(nullable = false)
+    @GenericField(sortable = Sortable.YES, aggregable = Aggregable.YES)
     private Integer rating;
 
     @OneToMany(mappedBy = "framework", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 100)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = EntityCacheConfig.FRAMEWORK_VERSIONS_REGION)
+    // Versions are changed only through the service, which reindexes the framework explicitly when the indexed last
+    // deprecation date changes. Indexing events of versions would fail when the framework is deleted before they are
+    // processed.
+    @IndexingDependency(reindexOnUpdate = ReindexOnUpdate.NO)
     @JsonManagedReference
     private List<FrameworkVersion> versions = new ArrayList<>();
 
+    /**
+     * Incremented by every change of the framework including its versions, served as ETag. Primitive, so that
+     * Hibernate and Spring Data tell new entities by the ID. Stored in the index to find outdated documents.
+     */
+    @Version
+    @JsonIgnore
+    @GenericField(projectable = Projectable.YES)
+    private long revision;
+
+    /**
+     * The highest version in semantic versioning order, {@code null} when there are no versions. This and the
+     * following fields summarize the versions, so that clients don't need to load them. They are computed by
+     * {@link #refreshSummary(LocalDate)}.
+     */
+    @Column(length = 10)
+    @JsonIgnore
+    private String latestVersion;
+
+    /**
+     * Number of versions which are not deprecated yet.
+     */
+    @JsonIgnore
+    private int supportedVersions;
+
+    /**
+     * The nearest future deprecation date of a version, the summary is outdated once it passes.
+     */
+    @JsonIgnore
+    private LocalDate nextDeprecationDate;
+
     public JavascriptFramework() {
     }
 
@@ -92,6 +167,89 @@ public class JavascriptFramework {
         this.versions = versions;
     }
 
+    public long getRevision() {
+        return revision;
+    }
+
+    public void setRevision(long revision) {
+        this.revision = revision;
+    }
+
+    public String getLatestVersion() {
+        return latestVersion;
+    }
+
+    public int getSupportedVersions() {
+        return supportedVersions;
+    }
+
+    public LocalDate getNextDeprecationDate() {
+        return nextDeprecationDate;
+    }
+
+    /**
+     * The latest deprecation date of framework versions, {@link LocalDate#MAX} when some version has no deprecation
+     * date and {@code null} when there are no versions. The framework is supported while this date is in the future.
+     * Indexed as a single value, so support status can be filtered and counted by one range query.
+     */
+    @JsonIgnore
+    @GenericField(sortable = Sortable.YES, aggregable = Aggregable.YES)
+    @IndexingDependency(
+            derivedFrom = @ObjectPath({
+                @PropertyValue(propertyName = "versions"),
+                @PropertyValue(propertyName = "deprecationDate")
+            })
+    )
+    public LocalDate getLastDeprecationDate() {
+        LocalDate lastDeprecationDate = null;
+        for (FrameworkVersion version : versions) {
+            LocalDate deprecationDate = version.getDeprecationDate();
+            if (deprecationDate == null) {
+                return LocalDate.MAX;
+            }
+            if (lastDeprecationDate == null || deprecationDate.isAfter(lastDeprecationDate)) {
+                lastDeprecationDate = deprecationDate;
+            }
+        }
+        return lastDeprecationDate;
+    }
+
+    /**
+     * Computes the summary of versions, has to be called after versions were changed and when the next deprecation
+     * date passes. A version is supported while its deprecation date is after the given day or when it has none.
+     * Unchanged values don't make the framework dirty.
+     */
+    public void refreshSummary(LocalDate today) {
+        FrameworkVersion latest = null;
+        int supported = 0;
+        LocalDate next = null;
+        for (FrameworkVersion version : versions) {
+            if (latest == null || FrameworkVersion.ORDER.compare(version, latest) > 0) {
+                latest = version;
+            }
+            LocalDate deprecationDate = version.getDeprecationDate();
+            if (deprecationDate == null || deprecationDate.isAfter(today)) {
+                supported++;
+            }
+            if (deprecationDate != null && deprecationDate.isAfter(today)
+                    && (next == null || deprecationDate.isBefore(next))) {
+                next = deprecationDate;
+            }
+        }
+        latestVersion = latest == null ? null : latest.getVersion();
+        supportedVersions = supported;
+        nextDeprecationDate = next;
+    }
+
+    /**
+     * New frameworks get their summary however they are saved. Changes of versions alone don't make the framework
+     * dirty, so updates refresh it explicitly.
+     */
+    @PrePersist
+    void summarizeNew() {
+        refreshSummary(LocalDate.now());
+    }
+
     public void addVersion(FrameworkVersion version) {
         versions.add(version);
         version.setFramework(this);
@@ -0,0 +1,148 @@
+package cz.eg.hr.data;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Version number ordered by the precedence rules of Semantic Versioning 2.0.0. A leading {@code v} is ignored and
+ * missing minor and patch numbers are taken as zero, so versions like {@code v2} or {@code 1.9} are accepted too.
+ * Build metadata after {@code +} doesn't take part in the ordering.
+ * <p>
+ * The ordering can be evaluated by a database too, versions ordered by major, minor and patch numbers and then by
+ * {@link #preReleaseKey()} compared as plain strings are in the same order.
+ */
+public record SemanticVersion(int major, int minor, int patch, List<String> preRelease)
+        implements Comparable<SemanticVersion> {
+
+    private static final Pattern PATTERN = Pattern.compile(
+            "v?(\\d{1,9})(?:\\.(\\d{1,9}))?(?:\\.(\\d{1,9}))?"
+            + "(?:-([0-9A-Za-z-]+(?:\\.[0-9A-Za-z-]+)*))?"
+            + "(?:\\+[0-9A-Za-z-]+(?:\\.[0-9A-Za-z-]+)*)?"
+    );
+
+    private static final Pattern NUMERIC = Pattern.compile("\\d+");
+
+    /**
+     * Pre-release key of releases, after the keys of all pre-releases.
+     */
+    public static final String RELEASE_KEY = "~";
+
+    /**
+     * Orders version strings by semantic version, strings which are not semantic versions come first in natural order.
+     */
+    public static final Comparator<String> ORDER = (a, b) -> {
+        Optional<SemanticVersion> first = tryParse(a);
+        Optional<SemanticVersion> second = tryParse(b);
+        if (first.isPresent() && second.isPresent()) {
+            return first.get().compareTo(second.get());
+        }
+        if (first.isPresent() != second.isPresent()) {
+            return first.isPresent() ? 1 : -1;
+        }
+        return Comparator.nullsFirst(Comparator.<String>naturalOrder()).compare(a, b);
+    };
+
+    public SemanticVersion {
+        preRelease = List.copyOf(preRelease);
+    }
+
+    /**
+     * @throws IllegalArgumentException when the version is not a semantic version
+     */
+    public static SemanticVersion parse(String version) {
+        return tryParse(version)
+                .orElseThrow(() -> new IllegalArgumentException("Version " + version + " is not a semantic version."));
+    }
+
+    public static Optional<SemanticVersion> tryParse(String version) {
+        if (version == null) {
+            return Optional.empty();
+        }
+        Matcher matcher = PATTERN.matcher(version.trim());
+        if (!matcher.matches()) {
+            return Optional.empty();
+        }
+        return Optional.of(new SemanticVersion(
+                Integer.parseInt(matcher.group(1)),
+                matcher.group(2) == null ? 0 : Integer.parseInt(matcher.group(2)),
+                matcher.group(3) == null ? 0 : Integer.parseInt(matcher.group(3)),
+                matcher.group(4) == null ? List.of() : Arrays.asList(matcher.group(4).split("\\."))
+        ));
+    }
+
+    @Override
+    public int compareTo(SemanticVersion other) {
+        int result = Integer.compare(major, other.major);
+        if (result == 0) {
+            result = Integer.compare(minor, other.minor);
+        }
+        if (result == 0) {
+            result = Integer.compare(patch, other.patch);
+        }
+        if (result != 0) {
+            return result;
+        }
+        // A pre-release precedes the release
+        if (preRelease.isEmpty() || other.preRelease.isEmpty()) {
+            return Boolean.compare(preRelease.isEmpty(), other.preRelease.isEmpty());
+        }
+        for (int i = 0; i < Math.min(preRelease.size(), other.preRelease.size()); i++) {
+            result = compareIdentifiers(preRelease.get(i), other.preRelease.get(i));
+            if (result != 0) {
+                return result;
+            }
+        }
+        return Integer.compare(preRelease.size(), other.preRelease.size());
+    }
+
+    /**
+     * Numeric identifiers are compared numerically and precede alphanumeric ones, which are compared in ASCII order.
+     */
+    private static int compareIdentifiers(String first, String second) {
+        boolean firstNumeric = NUMERIC.matcher(first).matches();
+        boolean secondNumeric = NUMERIC.matcher(second).matches();
+        if (firstNumeric && secondNumeric) {
+            return new BigInteger(first).compareTo(new BigInteger(second));
+        }
+        if (firstNumeric != secondNumeric) {
+            return firstNumeric ? -1 : 1;
+        }
+        return first.compareTo(second);
+    }
+
+    /**
+     * Pre-release identifiers encoded so that keys compare as strings in the order of precedence. Numeric identifiers
+     * get prefix {@code 0}, the number of their digits and their digits, alphanumeric ones get prefix {@code 1}.
+     * Identifiers are separated by {@code !}, which sorts before any character allowed in an identifier, so a shorter
+     * list of equal identifiers comes first.
+     */
+    public String preReleaseKey() {
+        if (preRelease.isEmpty()) {
+            return RELEASE_KEY;
+        }
+        StringBuilder key = new StringBuilder();
+        for (String identifier : preRelease) {
+            if (key.length() > 0) {
+                key.append('!');
+            }
+            if (NUMERIC.matcher(identifier).matches()) {
+                String digits = new BigInteger(identifier).toString();
+                key.append('0').append(String.format("%02d", digits.length())).append(digits);
+            } else {
+                key.append('1').append(identifier);
+            }
+        }
+        return key.toString();
+    }
+
+    @Override
+    public String toString() {
+        String version = major + "." + minor + "." + patch;
+        return preRelease.isEmpty() ? version : version + "-" + String.join(".", preRelease);
+    }
+}
@@ -0,0 +1,15 @@
+package cz.eg.hr.data;
+
+import java.time.LocalDate;
+
+/**
+ * Version matching a version range, with the framework it belongs to.
+ */
+public record VersionMatch(
+        Long id,
+        String version,
+        LocalDate deprecationDate,
+        Long frameworkId,
+        String frameworkName
+) {
+}
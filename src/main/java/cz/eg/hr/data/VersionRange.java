@@ -0,0 +1,219 @@
+package cz.eg.hr.data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Range of semantic versions in the syntax of npm: comparators {@code <}, {@code <=}, {@code >}, {@code >=} and
+ * {@code =} joined by spaces, alternatives joined by {@code ||}, hyphen ranges {@code 1.2 - 2.3}, X-ranges
+ * {@code 1.x}, {@code 1.2.*} or a partial version {@code 1.2}, tilde {@code ~1.2.3} and caret {@code ^1.2.3} ranges.
+ * Every alternative is reduced to a list of {@link Bound}s which a version has to satisfy all.
+ * <p>
+ * Like npm, a pre-release version is in the range only when some bound of the alternative is a pre-release of the same
+ * major, minor and patch numbers, so {@code >=1.0.0-beta} contains {@code 1.0.0-rc.1} but not {@code 1.1.0-rc.1}.
+ *
+ * @param alternatives bounds of the alternatives, an empty list of bounds contains all versions
+ */
+public record VersionRange(List<List<Bound>> alternatives) {
+
+    public enum Operator {
+        LT, LTE, GT, GTE, EQ
+    }
+
+    /**
+     * Condition comparing a version with the given version by the operator.
+     */
+    public record Bound(Operator operator, SemanticVersion version) {
+
+        public boolean matches(SemanticVersion candidate) {
+            int order = candidate.compareTo(version);
+            return switch (operator) {
+                case LT -> order < 0;
+                case LTE -> order <= 0;
+                case GT -> order > 0;
+                case GTE -> order >= 0;
+                case EQ -> order == 0;
+            };
+        }
+    }
+
+    private static final Pattern HYPHEN = Pattern.compile("(\\S+)\\s+-\\s+(\\S+)");
+
+    private static final Pattern SPACE_AFTER_OPERATOR = Pattern.compile("(<=|>=|<|>|=|\\^|~>?)\\s+");
+
+    private static final Pattern COMPARATOR = Pattern.compile(
+            "(<=|>=|<|>|=|\\^|~>?)?v?(\\d{1,9}|[xX*])(?:\\.(\\d{1,9}|[xX*]))?(?:\\.(\\d{1,9}|[xX*]))?"
+            + "(?:-([0-9A-Za-z-]+(?:\\.[0-9A-Za-z-]+)*))?"
+            + "(?:\\+[0-9A-Za-z-]+(?:\\.[0-9A-Za-z-]+)*)?"
+    );
+
+    /**
+     * Lowest pre-release, {@code <1.3.0-0} excludes also pre-releases of 1.3.0.
+     */
+    private static final List<String> LOWEST = List.of("0");
+
+    public VersionRange {
+        alternatives = alternatives.stream().map(List::copyOf).toList();
+    }
+
+    /**
+     * @throws IllegalArgumentException when the range is not valid
+     */
+    public static VersionRange parse(String range) {
+        if (range == null) {
+            throw new IllegalArgumentException("Version range must not be empty.");
+        }
+        List<List<Bound>> alternatives = new ArrayList<>();
+        for (String alternative : range.split("\\|\\|", -1)) {
+            alternatives.add(parseAlternative(alternative.trim(), range));
+        }
+        return new VersionRange(alternatives);
+    }
+
+    private static List<Bound> parseAlternative(String alternative, String range) {
+        List<Bound> bounds = new ArrayList<>();
+        Matcher hyphen = HYPHEN.matcher(alternative);
+        if (hyphen.matches()) {
+            Partial from = Partial.parse(hyphen.group(1), range);
+            Partial to = Partial.parse(hyphen.group(2), range);
+            if (from.operator != null || to.operator != null) {
+                throw invalid(range);
+            }
+            if (from.major != null) {
+                bounds.add(new Bound(Operator.GTE, from.lowest()));
+            }
+            if (to.major != null) {
+                bounds.add(to.patch != null
+                        ? new Bound(Operator.LTE, to.lowest())
+                        : new Bound(Operator.LT, to.next(LOWEST)));
+            }
+            return bounds;
+        }
+        if (alternative.isEmpty()) {
+            return bounds;
+        }
+        for (String comparator : SPACE_AFTER_OPERATOR.matcher(alternative).replaceAll("$1").split("\\s+")) {
+            Partial.parse(comparator, range).addBounds(bounds);
+        }
+        return bounds;
+    }
+
+    public boolean matches(SemanticVersion version) {
+        return alternatives.stream().anyMatch(bounds ->
+                bounds.stream().allMatch(bound -> bound.matches(version)) && preReleaseAllowed(bounds, version)
+        );
+    }
+
+    /**
+     * Releases are always allowed, pre-releases only with a pre-release bound of the same major, minor and patch.
+     */
+    public static boolean preReleaseAllowed(List<Bound> bounds, SemanticVersion version) {
+        return version.preRelease().isEmpty() || bounds.stream()
+                .map(Bound::version)
+                .anyMatch(bound -> !bound.preRelease().isEmpty() && bound.major() == version.major()
+                        && bound.minor() == version.minor() && bound.patch() == version.patch());
+    }
+
+    private static IllegalArgumentException invalid(String range) {
+        return new IllegalArgumentException("Version range " + range + " is not valid.");
+    }
+
+    /**
+     * Version with optional operator where the trailing numbers may be missing or wildcards, {@code null} here.
+     */
+    private record Partial(String operator, Integer major, Integer minor, Integer patch, List<String> preRelease) {
+
+        static Partial parse(String comparator, String range) {
+            Matcher matcher = COMPARATOR.matcher(comparator);
+            if (!matcher.matches()) {
+                throw invalid(range);
+            }
+            Integer major = number(matcher.group(2));
+            Integer minor = major == null ? null : number(matcher.group(3));
+            Integer patch = minor == null ? null : number(matcher.group(4));
+            if (matcher.group(5) != null && patch == null) {
+                // Pre-release of a partial version
+                throw invalid(range);
+            }
+            List<String> preRelease = matcher.group(5) == null ? List.of() : List.of(matcher.group(5).split("\\."));
+            return new Partial(matcher.group(1), major, minor, patch, preRelease);
+        }
+
+        private static Integer number(String value) {
+            return value == null || !Character.isDigit(value.charAt(0)) ? null : Integer.valueOf(value);
+        }
+
+        /**
+         * The lowest version of the partial version, missing numbers are zero.
+         */
+        SemanticVersion lowest() {
+            return new SemanticVersion(major, minor == null ? 0 : minor, patch == null ? 0 : patch, preRelease);
+        }
+
+        /**
+         * The lowest version after all versions of the partial version, with the given pre-release.
+         */
+        SemanticVersion next(List<String> preRelease) {
+            return minor == null
+                    ? new SemanticVersion(major + 1, 0, 0, preRelease)
+                    : new SemanticVersion(major, minor + 1, 0, preRelease);
+        }
+
+        void addBounds(List<Bound> bounds) {
+            String symbol = operator == null ? "=" : operator;
+            if (major == null) {
+                if (symbol.equals("<") || symbol.equals(">")) {
+                    // Nothing is below or above all versions
+                    bounds.add(new Bound(Operator.LT, new SemanticVersion(0, 0, 0, LOWEST)));
+                }
+                return;
+            }
+            boolean full = patch != null;
+            switch (symbol) {
+                case "=" -> {
+                    if (full) {
+                        bounds.add(new Bound(Operator.EQ, lowest()));
+                    } else {
+                        bounds.add(new Bound(Operator.GTE, lowest()));
+                        bounds.add(new Bound(Operator.LT, next(LOWEST)));
+                    }
+                }
+                case ">=" -> bounds.add(new Bound(Operator.GTE, lowest()));
+                // Pre-releases of the next version are not above the partial version
+                case ">" -> bounds.add(full
+                        ? new Bound(Operator.GT, lowest())
+                        : new Bound(Operator.GTE, next(List.of())));
+                case "<" -> bounds.add(new Bound(Operator.LT, full
+                        ? lowest()
+                        : new SemanticVersion(major, minor == null ? 0 : minor, 0, LOWEST)));
+                case "<=" -> bounds.add(full
+                        ? new Bound(Operator.LTE, lowest())
+                        : new Bound(Operator.LT, next(LOWEST)));
+                case "~", "~>" -> {
+                    bounds.add(new Bound(Operator.GTE, lowest()));
+                    bounds.add(new Bound(Operator.LT, next(LOWEST)));
+                }
+                case "^" -> {
+                    bounds.add(new Bound(Operator.GTE, lowest()));
+                    bounds.add(new Bound(Operator.LT, caretNext()));
+                }
+                default -> throw new IllegalStateException("Unknown operator " + symbol + ".");
+            }
+        }
+
+        /**
+         * Caret allows changes which don't modify the left-most non-zero number.
+         */
+        private SemanticVersion caretNext() {
+            if (major > 0 || minor == null) {
+                return new SemanticVersion(major + 1, 0, 0, LOWEST);
+            }
+            if (minor > 0 || patch == null) {
+                return new SemanticVersion(0, minor + 1, 0, LOWEST);
+            }
+            return new SemanticVersion(0, 0, patch + 1, LOWEST);
+        }
+    }
+}
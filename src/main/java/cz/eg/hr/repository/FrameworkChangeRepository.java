@@ -0,0 +1,28 @@
+package cz.eg.hr.repository;
+
+import cz.eg.hr.data.FrameworkChange;
+import java.time.Instant;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+
+public interface FrameworkChangeRepository extends Repository<FrameworkChange, Long> {
+
+    @Query(
+            "SELECT c"
+            + " FROM FrameworkChange c"
+            + " WHERE c.seq > :since"
+            + " ORDER BY c.seq"
+    )
+    public List<FrameworkChange> findAfter(long since, Pageable pageable);
+
+    @Query("SELECT COALESCE(MAX(c.seq), 0) FROM FrameworkChange c")
+    public long findLastSeq();
+
+    @Query("SELECT COUNT(c) FROM FrameworkChange c WHERE c.seq > :since")
+    public long countAfter(long since);
+
+    @Query("SELECT MIN(c.changedAt) FROM FrameworkChange c WHERE c.seq > :since")
+    public Instant findOldestChangedAtAfter(long since);
+}
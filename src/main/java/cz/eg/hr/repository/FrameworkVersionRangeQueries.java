@@ -0,0 +1,20 @@
+package cz.eg.hr.repository;
+
+import cz.eg.hr.data.SemanticVersion;
+import cz.eg.hr.data.VersionMatch;
+import cz.eg.hr.data.VersionRange;
+import java.util.List;
+
+/**
+ * Queries of versions by a {@link VersionRange}, built for the bounds of the range.
+ */
+public interface FrameworkVersionRangeQueries {
+
+    /**
+     * Semantic versions in the range which follow the given version and ID, in semantic versioning order and by ID.
+     *
+     * @param afterVersion version of the last version of the previous page, {@code null} for the first page
+     * @param afterId ID of the last version of the previous page
+     */
+    public List<VersionMatch> findInRange(VersionRange range, SemanticVersion afterVersion, Long afterId, int limit);
+}
@@ -0,0 +1,131 @@
+package cz.eg.hr.repository;
+
+import cz.eg.hr.data.SemanticVersion;
+import cz.eg.hr.data.VersionMatch;
+import cz.eg.hr.data.VersionRange;
+import cz.eg.hr.data.VersionRange.Bound;
+import cz.eg.hr.data.VersionRange.Operator;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Every bound is a comparison of the tuple of parsed columns with the bound, written out column by column. A redundant
+ * condition on the major number lets the database read only a range of the semantic version index. Pre-releases are
+ * allowed only for the major, minor and patch numbers of pre-release bounds, see {@link VersionRange}.
+ */
+class FrameworkVersionRangeQueriesImpl implements FrameworkVersionRangeQueries {
+
+    private static final List<String> COLUMNS = List.of("v.major", "v.minor", "v.patch", "v.preReleaseKey", "v.id");
+
+    private final EntityManager em;
+
+    @Autowired
+    FrameworkVersionRangeQueriesImpl(EntityManager entityManager) {
+        this.em = entityManager;
+    }
+
+    @Override
+    public List<VersionMatch> findInRange(VersionRange range, SemanticVersion afterVersion, Long afterId, int limit) {
+        List<Object> parameters = new ArrayList<>();
+        List<String> alternatives = new ArrayList<>();
+        for (List<Bound> bounds : range.alternatives()) {
+            List<String> conditions = new ArrayList<>();
+            for (Bound bound : bounds) {
+                conditions.add(condition(bound, parameters));
+            }
+            conditions.add(preReleaseCondition(bounds, parameters));
+            alternatives.add("(" + String.join(" AND ", conditions) + ")");
+        }
+        StringBuilder jpql = new StringBuilder(
+                "SELECT new cz.eg.hr.data.VersionMatch(v.id, v.version, v.deprecationDate, f.id, f.name)"
+                + " FROM FrameworkVersion v"
+                + " JOIN v.framework f"
+                + " WHERE v.major IS NOT NULL AND (" + String.join(" OR ", alternatives) + ")"
+        );
+        if (afterVersion != null) {
+            jpql.append(" AND v.major >= ").append(parameter(afterVersion.major(), parameters))
+                    .append(" AND ").append(compare(values(afterVersion, afterId, parameters), ">", ">"));
+        }
+        jpql.append(" ORDER BY v.major, v.minor, v.patch, v.preReleaseKey, v.id");
+
+        TypedQuery<VersionMatch> query = em.createQuery(jpql.toString(), VersionMatch.class);
+        for (int i = 0; i < parameters.size(); i++) {
+            query.setParameter("p" + i, parameters.get(i));
+        }
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    private static String condition(Bound bound, List<Object> parameters) {
+        SemanticVersion version = bound.version();
+        List<String> values = values(version, null, parameters);
+        String major = "v.major " + (bound.operator() == Operator.GT || bound.operator() == Operator.GTE ? ">=" : "<=")
+                + " " + values.get(0);
+        return switch (bound.operator()) {
+            case EQ -> "(v.major = " + values.get(0) + " AND v.minor = " + values.get(1)
+                    + " AND v.patch = " + values.get(2) + " AND v.preReleaseKey = " + values.get(3) + ")";
+            case GT -> "(" + major + " AND " + compare(values, ">", ">") + ")";
+            case GTE -> "(" + major + " AND " + compare(values, ">", ">=") + ")";
+            case LT -> "(" + major + " AND " + compare(values, "<", "<") + ")";
+            case LTE -> "(" + major + " AND " + compare(values, "<", "<=") + ")";
+        };
+    }
+
+    private static String preReleaseCondition(List<Bound> bounds, List<Object> parameters) {
+        StringBuilder condition = new StringBuilder("(v.preReleaseKey = ")
+                .append(parameter(SemanticVersion.RELEASE_KEY, parameters));
+        Set<List<Integer>> allowed = new LinkedHashSet<>();
+        for (Bound bound : bounds) {
+            SemanticVersion version = bound.version();
+            if (!version.preRelease().isEmpty()) {
+                allowed.add(List.of(version.major(), version.minor(), version.patch()));
+            }
+        }
+        for (List<Integer> numbers : allowed) {
+            condition.append(" OR (v.major = ").append(parameter(numbers.get(0), parameters))
+                    .append(" AND v.minor = ").append(parameter(numbers.get(1), parameters))
+                    .append(" AND v.patch = ").append(parameter(numbers.get(2), parameters))
+                    .append(")");
+        }
+        return condition.append(")").toString();
+    }
+
+    /**
+     * Lexicographic comparison of the columns with the values, {@code operator} compares all columns but the last one,
+     * which is compared by {@code lastOperator}.
+     */
+    private static String compare(List<String> values, String operator, String lastOperator) {
+        int last = values.size() - 1;
+        String condition = COLUMNS.get(last) + " " + lastOperator + " " + values.get(last);
+        for (int i = last - 1; i >= 0; i--) {
+            condition = COLUMNS.get(i) + " " + operator + " " + values.get(i)
+                    + " OR (" + COLUMNS.get(i) + " = " + values.get(i) + " AND (" + condition + "))";
+        }
+        return "(" + condition + ")";
+    }
+
+    /**
+     * Parameters of the version's columns, and of the ID when it's given.
+     */
+    private static List<String> values(SemanticVersion version, Long id, List<Object> parameters) {
+        List<String> values = new ArrayList<>(List.of(
+                parameter(version.major(), parameters),
+                parameter(version.minor(), parameters),
+                parameter(version.patch(), parameters),
+                parameter(version.preReleaseKey(), parameters)
+        ));
+        if (id != null) {
+            values.add(parameter(id, parameters));
+        }
+        return values;
+    }
+
+    private static String parameter(Object value, List<Object> parameters) {
+        parameters.add(value);
+        return ":p" + (parameters.size() - 1);
+    }
+}
@@ -0,0 +1,50 @@
+package cz.eg.hr.repository;
+
+import cz.eg.hr.data.DeprecatingVersion;
+import cz.eg.hr.data.FrameworkVersion;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+
+public interface FrameworkVersionRepository
+        extends Repository<FrameworkVersion, Long>, FrameworkVersionRangeQueries {
+
+    /**
+     * Versions deprecated up to {@code to} which follow the given date and ID in the order by deprecation date and ID.
+     * The range condition on the date reads only the needed part of the deprecation date index, the rest of the
+     * condition skips versions of the same day up to the ID.
+     */
+    @Query(
+            "SELECT new cz.eg.hr.data.DeprecatingVersion(v.id, v.version, v.deprecationDate, f.id, f.name)"
+            + " FROM FrameworkVersion v"
+            + " JOIN v.framework f"
+            + " WHERE v.deprecationDate >= :afterDate AND v.deprecationDate <= :to"
+            + " AND (v.deprecationDate > :afterDate OR v.id > :afterId)"
+            + " ORDER BY v.deprecationDate, v.id"
+    )
+    public List<DeprecatingVersion> findDeprecatingAfter(
+            LocalDate afterDate,
+            Long afterId,
+            LocalDate to,
+            Pageable pageable
+    );
+
+    @Query(
+            "SELECT v.id FROM FrameworkVersion v"
+            + " WHERE v.framework.id IN :frameworkIds"
+    )
+    public List<Long> findIdsByFrameworkIdIn(Collection<Long> frameworkIds);
+
+    /**
+     * Versions without parsed semantic version columns, those which are not semantic versions and those saved before
+     * the columns existed.
+     */
+    @Query(
+            "SELECT v FROM FrameworkVersion v"
+            + " WHERE v.major IS NULL"
+    )
+    public List<FrameworkVersion> findAllUnparsed();
+}
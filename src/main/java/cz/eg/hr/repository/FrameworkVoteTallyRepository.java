@@ -0,0 +1,19 @@
+package cz.eg.hr.repository;
+
+import cz.eg.hr.data.FrameworkVoteTally;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+
+public interface FrameworkVoteTallyRepository extends Repository<FrameworkVoteTally, Long> {
+
+    public Optional<FrameworkVoteTally> findById(Long frameworkId);
+
+    public List<FrameworkVoteTally> findAllById(Iterable<Long> frameworkIds);
+
+    @Modifying
+    @Query("DELETE FROM FrameworkVoteTally t WHERE t.frameworkId = :frameworkId")
+    public void deleteByFrameworkId(Long frameworkId);
+}
@@ -1,9 +1,114 @@
 package cz.eg.hr.repository;
 
+import cz.eg.hr.data.CatalogueRevision;
+import cz.eg.hr.data.FrameworkRevision;
+import cz.eg.hr.data.FrameworkSummary;
+import cz.eg.hr.data.FrameworkVersionRow;
 import cz.eg.hr.data.JavascriptFramework;
+import jakarta.persistence.QueryHint;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 
 public interface JavascriptFrameworkRepository extends CrudRepository<JavascriptFramework, Long> {
 
+    /**
+     * Cached by the query cache until the table is modified.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     public boolean existsByName(String name);
+
+    public List<JavascriptFramework> findAllByNameIn(Collection<String> names);
+
+    @Query(
+            "SELECT f.revision"
+            + " FROM JavascriptFramework f"
+            + " WHERE f.id = :id"
+    )
+    public Optional<Long> findRevisionById(Long id);
+
+    @Query(
+            "SELECT new cz.eg.hr.data.CatalogueRevision(COUNT(f), COALESCE(MAX(f.id), 0), COALESCE(SUM(f.revision), 0))"
+            + " FROM JavascriptFramework f"
+    )
+    public CatalogueRevision getCatalogueRevision();
+
+    /**
+     * Forward only cursor over revisions of all frameworks ordered by ID. The stream has to be consumed inside
+     * a transaction and closed.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(
+            "SELECT new cz.eg.hr.data.FrameworkRevision(f.id, f.revision)"
+            + " FROM JavascriptFramework f"
+            + " ORDER BY f.id"
+    )
+    public Stream<FrameworkRevision> streamRevisions();
+
+    @Query(
+            "SELECT f.id"
+            + " FROM JavascriptFramework f"
+            + " WHERE f.id > :after"
+            + " ORDER BY f.id"
+    )
+    public List<Long> findIdsAfter(Long after, Pageable pageable);
+
+    @Query(
+            "SELECT new cz.eg.hr.data.FrameworkSummary("
+            + "f.id, f.name, f.latestVersion, f.supportedVersions, f.nextDeprecationDate)"
+            + " FROM JavascriptFramework f"
+            + " ORDER BY f.id"
+    )
+    public List<FrameworkSummary> findAllSummaries();
+
+    /**
+     * Frameworks with a version deprecated since their summary was computed.
+     */
+    @Query(
+            "SELECT DISTINCT f"
+            + " FROM JavascriptFramework f"
+            + " LEFT JOIN FETCH f.versions"
+            + " WHERE f.nextDeprecationDate <= :today"
+    )
+    public List<JavascriptFramework> findAllWithOutdatedSummary(LocalDate today);
+
+    public static final String VIEW_ROWS = "SELECT new cz.eg.hr.data.FrameworkVersionRow("
+            + "f.id, f.name, f.description, f.rating, f.revision, v.id, v.version, v.deprecationDate)"
+            + " FROM JavascriptFramework f"
+            + " LEFT JOIN f.versions v";
+
+    /**
+     * Frameworks with their versions as flat rows ordered by framework and version ID, a framework takes as many rows
+     * as it has versions. No entities are loaded into the persistence context.
+     */
+    @Query(
+            VIEW_ROWS
+            + " WHERE f.id IN :ids"
+            + " ORDER BY f.id, v.id"
+    )
+    public List<FrameworkVersionRow> findViewRowsByIdIn(Collection<Long> ids);
+
+    @Query(
+            VIEW_ROWS
+            + " ORDER BY f.id, v.id"
+    )
+    public List<FrameworkVersionRow> findAllViewRows();
+
+    /**
+     * Forward only cursor over the rows of {@link #findAllViewRows()}. The stream has to be consumed inside
+     * a transaction and closed.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "100"))
+    @Query(
+            VIEW_ROWS
+            + " ORDER BY f.id, v.id"
+    )
+    public Stream<FrameworkVersionRow> streamAllViewRows();
 }
@@ -0,0 +1,10 @@
+package cz.eg.hr.rest;
+
+import java.util.List;
+
+/**
+ * Result of one item of a batch request. {@code index} is the position of the item in the request, {@code id} is
+ * the ID of the saved framework or {@code null} when the item was rejected for the listed errors.
+ */
+public record BatchItemResult(int index, Long id, List<ValidationError> errors) {
+}
@@ -0,0 +1,17 @@
+package cz.eg.hr.rest;
+
+import cz.eg.hr.data.FrameworkChange;
+import java.time.Instant;
+
+/**
+ * Change of a framework with its current state, {@code framework} is {@code null} for a delete and for a framework
+ * deleted by a later change.
+ */
+public record ChangeEntry(
+        long seq,
+        Long frameworkId,
+        FrameworkChange.Type type,
+        Instant changedAt,
+        FrameworkView framework
+) {
+}
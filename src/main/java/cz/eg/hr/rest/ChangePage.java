@@ -0,0 +1,10 @@
+package cz.eg.hr.rest;
+
+import java.util.List;
+
+/**
+ * Changes following a sequence number. Pass {@code nextSince} as the {@code since} parameter to get the following
+ * changes, also when {@code more} is {@code false} and the client is polling for new ones.
+ */
+public record ChangePage(List<ChangeEntry> items, long nextSince, boolean more) {
+}
@@ -0,0 +1,11 @@
+package cz.eg.hr.rest;
+
+import cz.eg.hr.data.DeprecatingVersion;
+import java.util.List;
+
+/**
+ * One page of versions ordered by deprecation date. Pass {@code nextCursor} as the {@code after} parameter to get the
+ * following page, it is {@code null} on the last page.
+ */
+public record DeprecationPage(List<DeprecatingVersion> items, String nextCursor) {
+}
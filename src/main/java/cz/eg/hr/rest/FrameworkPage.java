@@ -0,0 +1,10 @@
+package cz.eg.hr.rest;
+
+import java.util.List;
+
+/**
+ * One page of the keyset paginated framework listing. Pass {@code nextCursor} as the {@code after} parameter to get
+ * the following page, it is {@code null} on the last page.
+ */
+public record FrameworkPage(List<FrameworkView> items, Long nextCursor) {
+}
@@ -0,0 +1,7 @@
+package cz.eg.hr.rest;
+
+/**
+ * Framework fields stored in the fulltext index, returned by searches that don't load entities from the database.
+ */
+public record FrameworkProjection(Long id, String name, String description) {
+}
@@ -0,0 +1,19 @@
+package cz.eg.hr.rest;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import java.util.List;
+
+/**
+ * Read-only framework with its versions, returned by GET endpoints. It is built from a projection query, so no entity
+ * is loaded and serialization can't trigger lazy loading. Serialized the same way as the framework entity, the
+ * revision read with it is not serialized, it tags the response.
+ */
+public record FrameworkView(
+        Long id,
+        String name,
+        String description,
+        Integer rating,
+        List<VersionView> versions,
+        @JsonIgnore long revision
+) {
+}
@@ -0,0 +1,22 @@
+package cz.eg.hr.rest;
+
+import java.time.Instant;
+
+/**
+ * Progress of a rebuild of the fulltext index. {@code total} is the number of frameworks to index, it is known once
+ * their IDs are loaded. {@code failure} is set when the rebuild failed.
+ */
+public record ReindexStatus(
+        State state,
+        long total,
+        long indexed,
+        double documentsPerSecond,
+        Instant started,
+        Instant finished,
+        String failure
+) {
+
+    public enum State {
+        RUNNING, COMPLETED, FAILED
+    }
+}
@@ -0,0 +1,10 @@
+package cz.eg.hr.rest;
+
+import java.util.Map;
+
+/**
+ * Counts of search hits per rating and per support status. Frameworks without versions are neither supported nor
+ * deprecated.
+ */
+public record SearchFacets(Map<Integer, Long> rating, long supported, long deprecated) {
+}
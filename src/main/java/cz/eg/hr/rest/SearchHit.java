@@ -0,0 +1,7 @@
+package cz.eg.hr.rest;
+
+/**
+ * Fulltext search hit with its relevance score.
+ */
+public record SearchHit<T>(float score, T item) {
+}
@@ -0,0 +1,10 @@
+package cz.eg.hr.rest;
+
+import java.util.List;
+
+/**
+ * One page of fulltext search results. {@code total} is the number of all matching frameworks, not only the ones on
+ * this page. {@code facets} are computed over all matching frameworks too, they are {@code null} unless requested.
+ */
+public record SearchPage<T>(long total, List<SearchHit<T>> hits, SearchFacets facets) {
+}
@@ -0,0 +1,45 @@
+package cz.eg.hr.rest;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Parameters of the paginated fulltext search. Text and all filters are optional, without any of them every framework
+ * matches. The text is {@linkplain #normalizeText(String) normalized}, so queries differing only in case and spacing
+ * are equal and share cached results.
+ *
+ * @param text words to look for in name and description
+ * @param minRating lowest rating included
+ * @param maxRating highest rating included
+ * @param supported {@code true} for frameworks with at least one supported version, {@code false} for frameworks
+ * with all versions deprecated
+ * @param sort order of hits, by relevance when not set
+ * @param facets whether to compute counts of hits per rating and per support status
+ * @param offset number of hits to skip
+ * @param limit maximum number of hits on the page
+ */
+public record SearchQuery(
+        String text,
+        Integer minRating,
+        Integer maxRating,
+        Boolean supported,
+        SearchSort sort,
+        boolean facets,
+        int offset,
+        int limit
+) {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    public SearchQuery {
+        text = normalizeText(text);
+    }
+
+    /**
+     * Text with the same hits as the given one: trimmed, with runs of whitespace replaced by a single space and in
+     * lower case, as the analyzers of the indexed fields split words on whitespace and lowercase them.
+     */
+    public static String normalizeText(String text) {
+        return text == null ? null : WHITESPACE.matcher(text.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+}
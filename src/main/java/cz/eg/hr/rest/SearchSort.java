@@ -0,0 +1,22 @@
+package cz.eg.hr.rest;
+
+/**
+ * Order of fulltext search hits.
+ */
+public enum SearchSort {
+
+    /**
+     * Most relevant first.
+     */
+    RELEVANCE,
+
+    /**
+     * Best rated first, equally rated by relevance.
+     */
+    RATING,
+
+    /**
+     * Alphabetically by name, case insensitive.
+     */
+    NAME
+}
@@ -0,0 +1,11 @@
+package cz.eg.hr.rest;
+
+import cz.eg.hr.data.VersionMatch;
+import java.util.List;
+
+/**
+ * One page of versions in semantic versioning order. Pass {@code nextCursor} as the {@code after} parameter to get the
+ * following page, it is {@code null} on the last page.
+ */
+public record VersionPage(List<VersionMatch> items, String nextCursor) {
+}
@@ -0,0 +1,9 @@
+package cz.eg.hr.rest;
+
+import java.time.LocalDate;
+
+/**
+ * Read-only version of a framework, part of {@link FrameworkView}.
+ */
+public record VersionView(Long id, String version, LocalDate deprecationDate) {
+}
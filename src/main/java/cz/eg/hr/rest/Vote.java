@@ -0,0 +1,18 @@
+package cz.eg.hr.rest;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Vote of a user for a framework.
+ *
+ * @param stars one to five stars
+ */
+public record Vote(
+        @NotNull
+        @Min(value = 1, message = "must be between 1 and 5")
+        @Max(value = 5, message = "must be between 1 and 5")
+        Integer stars
+) {
+}
@@ -0,0 +1,13 @@
+package cz.eg.hr.rest;
+
+import java.util.Map;
+
+/**
+ * Votes of users for a framework.
+ *
+ * @param votes number of votes
+ * @param average average number of stars, {@code null} without votes
+ * @param histogram number of votes by stars, from one to five
+ */
+public record VoteSummary(long votes, Double average, Map<Integer, Long> histogram) {
+}
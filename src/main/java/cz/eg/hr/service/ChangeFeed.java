@@ -0,0 +1,119 @@
+package cz.eg.hr.service;
+
+import cz.eg.hr.rest.ChangeEntry;
+import cz.eg.hr.rest.ChangePage;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Server-Sent Events stream of the change log. A subscriber first gets the changes it missed, then new changes as they
+ * are committed. Every event has the sequence number of the change as ID, so a reconnecting client continues by
+ * {@code Last-Event-ID}. Events are sent by a single background thread, writes don't wait for slow subscribers.
+ */
+@Component
+public class ChangeFeed implements DisposableBean {
+
+    private static final int PAGE_SIZE = 100;
+
+    private final JavascriptFrameworkService javascriptFrameworkService;
+
+    private final Duration timeout;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final ExecutorService sender = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "change-feed");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Set while a delivery to all subscribers is waiting to start, further commits don't need another one.
+     */
+    private final AtomicBoolean deliveryPending = new AtomicBoolean();
+
+    @Autowired
+    public ChangeFeed(
+            JavascriptFrameworkService javascriptFrameworkService,
+            @Value("${frameworks.changes.stream-timeout}") Duration timeout
+    ) {
+        this.javascriptFrameworkService = javascriptFrameworkService;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Stream of changes following the given sequence number.
+     */
+    public SseEmitter subscribe(long since) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter, since);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        sender.execute(() -> deliver(subscriber));
+        return emitter;
+    }
+
+    @EventListener
+    public void changesCommitted(ChangeLog.Committed event) {
+        if (deliveryPending.compareAndSet(false, true)) {
+            sender.execute(() -> {
+                deliveryPending.set(false);
+                subscribers.forEach(this::deliver);
+            });
+        }
+    }
+
+    private void deliver(Subscriber subscriber) {
+        try {
+            ChangePage page;
+            do {
+                page = javascriptFrameworkService.listChanges(subscriber.since, PAGE_SIZE);
+                for (ChangeEntry change : page.items()) {
+                    subscriber.emitter.send(SseEmitter.event()
+                            .id(Long.toString(change.seq()))
+                            .name("change")
+                            .data(change, MediaType.APPLICATION_JSON));
+                }
+                subscriber.since = page.nextSince();
+            } while (page.more());
+        } catch (IOException | IllegalStateException e) {
+            // The client is gone or the stream timed out
+            subscribers.remove(subscriber);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        sender.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    private static class Subscriber {
+
+        private final SseEmitter emitter;
+
+        /**
+         * Accessed only by the sender thread.
+         */
+        private long since;
+
+        private Subscriber(SseEmitter emitter, long since) {
+            this.emitter = emitter;
+            this.since = since;
+        }
+    }
+}
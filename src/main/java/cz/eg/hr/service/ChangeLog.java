@@ -0,0 +1,116 @@
+package cz.eg.hr.service;
+
+import cz.eg.hr.data.ChangeSequence;
+import cz.eg.hr.data.FrameworkChange;
+import cz.eg.hr.data.FrameworkChange.Type;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Log of changes of frameworks, the source of the change feed. Changes recorded by a transaction are written just
+ * before it commits and numbered from a counter row, which stays locked until the commit. Sequence numbers thus follow
+ * the order of commits, a reader never sees a change with a lower number appear after a higher one. The lock is held
+ * only for the commit, after all other changes of the transaction were flushed.
+ * <p>
+ * A framework changed several times by one transaction is recorded once, created and then updated counts as created.
+ * {@link Committed} is published once the changes are committed.
+ */
+@Component
+public class ChangeLog {
+
+    /**
+     * Published after a transaction committed changes, {@code lastSeq} is the highest sequence number written by it.
+     */
+    public record Committed(long lastSeq) {
+    }
+
+    private final EntityManager em;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final TransactionTemplate transaction;
+
+    @Autowired
+    public ChangeLog(
+            EntityManager entityManager,
+            ApplicationEventPublisher eventPublisher,
+            PlatformTransactionManager transactionManager
+    ) {
+        this.em = entityManager;
+        this.eventPublisher = eventPublisher;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    void createSequence() {
+        transaction.executeWithoutResult(status -> {
+            if (em.find(ChangeSequence.class, ChangeSequence.ID) == null) {
+                em.persist(new ChangeSequence());
+            }
+        });
+    }
+
+    /**
+     * Records the change to be written at commit of the current transaction.
+     */
+    public void record(Long frameworkId, Type type) {
+        pendingChanges().merge(frameworkId, type, (previous, current) ->
+                previous == Type.CREATED && current == Type.UPDATED ? Type.CREATED : current
+        );
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Long, Type> pendingChanges() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Changes can be recorded only in a transaction.");
+        }
+        Map<Long, Type> pending = (Map<Long, Type>) TransactionSynchronizationManager.getResource(this);
+        if (pending != null) {
+            return pending;
+        }
+        Map<Long, Type> changes = new LinkedHashMap<>();
+        TransactionSynchronizationManager.bindResource(this, changes);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+            private long lastSeq;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                lastSeq = write(changes);
+            }
+
+            @Override
+            public void afterCommit() {
+                eventPublisher.publishEvent(new Committed(lastSeq));
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResource(ChangeLog.this);
+            }
+        });
+        return changes;
+    }
+
+    private long write(Map<Long, Type> changes) {
+        em.flush();
+        ChangeSequence sequence = em.find(ChangeSequence.class, ChangeSequence.ID, LockModeType.PESSIMISTIC_WRITE);
+        Instant now = Instant.now();
+        changes.forEach((frameworkId, type) ->
+                em.persist(new FrameworkChange(sequence.next(), frameworkId, type, now))
+        );
+        em.flush();
+        return sequence.getLastSeq();
+    }
+}
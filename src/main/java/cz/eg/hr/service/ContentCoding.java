@@ -0,0 +1,103 @@
+package cz.eg.hr.service;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compression of responses, sent as {@code Content-Encoding}. Zstandard compresses about as well as gzip at a
+ * fraction of its CPU time and decompresses faster, gzip is understood by every client.
+ */
+public enum ContentCoding {
+
+    IDENTITY("identity"),
+    GZIP("gzip"),
+    ZSTD("zstd");
+
+    /**
+     * Zstandard default level, higher levels cost much more CPU for a few percent of size.
+     */
+    private static final int ZSTD_LEVEL = 3;
+
+    private final String token;
+
+    ContentCoding(String token) {
+        this.token = token;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public byte[] encode(byte[] content) {
+        return switch (this) {
+            case IDENTITY -> content;
+            case GZIP -> gzip(content);
+            case ZSTD -> Zstd.compress(content, ZSTD_LEVEL);
+        };
+    }
+
+    /**
+     * Stream compressing the data written to {@code out}, flushing it writes all data written so far to {@code out}.
+     */
+    public OutputStream wrap(OutputStream out) throws IOException {
+        return switch (this) {
+            case IDENTITY -> out;
+            case GZIP -> new GZIPOutputStream(out, true);
+            case ZSTD -> new ZstdOutputStream(out, ZSTD_LEVEL);
+        };
+    }
+
+    private static byte[] gzip(byte[] content) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(content.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(content);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Compression preferred by the {@code Accept-Encoding} header, the one with the highest quality and zstd when both
+     * have the same. Identity when the client accepts neither.
+     */
+    public static ContentCoding negotiate(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return IDENTITY;
+        }
+        ContentCoding best = IDENTITY;
+        double bestQuality = 0;
+        for (String item : acceptEncoding.split(",")) {
+            String[] parts = item.split(";");
+            String token = parts[0].trim();
+            double quality = quality(parts);
+            for (ContentCoding coding : new ContentCoding[] {ZSTD, GZIP}) {
+                if (quality > 0 && coding.token.equalsIgnoreCase(token)
+                        && (quality > bestQuality || quality == bestQuality && coding == ZSTD)) {
+                    best = coding;
+                    bestQuality = quality;
+                }
+            }
+        }
+        return best;
+    }
+
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
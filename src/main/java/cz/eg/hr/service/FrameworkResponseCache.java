@@ -0,0 +1,279 @@
+package cz.eg.hr.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import cz.eg.hr.rest.FrameworkView;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * In-process cache of serialized responses, so hot reads touch neither the database nor Jackson. Single frameworks
+ * are cached by ID, lists and search results by a key describing the request. The caches are bounded by the total size
+ * of the cached responses and entries expire after a fixed time.
+ * <p>
+ * Every {@link Variant} of a response, its format and compression, is cached separately, so compression costs CPU once
+ * per cache miss instead of once per request. Compressed variants are made from the cached uncompressed one, the
+ * response is loaded only once for all of them. Responses smaller than {@code frameworks.compression.min-size} are
+ * not worth compressing and are cached uncompressed for any variant.
+ * <p>
+ * Writes evict the changed framework and all pages, because any page can contain it. Eviction happens after the
+ * transaction commits, so a concurrent read can't put the old state back into the cache. The index is updated later
+ * in background, so search results are kept only shortly, a search before indexing would be cached stale otherwise.
+ * <p>
+ * A missing response is loaded by the first request asking for it, outside of any lock of the cache, so a virtual
+ * thread waiting for the database doesn't pin its carrier. Concurrent requests for the same key wait for its result
+ * instead of loading it again, so a burst of identical requests costs one execution. Requests served this way are
+ * counted by {@code cache.coalesced}, cache hits by {@code cache.gets}.
+ */
+@Component
+public class FrameworkResponseCache {
+
+    /**
+     * Rough memory taken by a cache entry apart from the response itself.
+     */
+    private static final int ENTRY_OVERHEAD = 128;
+
+    /**
+     * Format and compression of a response, as negotiated with the client.
+     */
+    public record Variant(ResponseFormat format, ContentCoding coding) {
+    }
+
+    /**
+     * Serialized response, compressed by {@code coding}. Small responses are not compressed even when asked to.
+     * A framework has the revision it was serialized at, other responses {@code null}.
+     */
+    public record Response(byte[] body, ResponseFormat format, ContentCoding coding, Long revision) {
+    }
+
+    private record Key(Object key, ResponseFormat format, ContentCoding coding) {
+    }
+
+    /**
+     * Cache with the counter of requests which waited for a response loaded by a concurrent request.
+     */
+    private record Region(AsyncCache<Key, Response> cache, Counter coalesced) {
+
+        static Region monitor(MeterRegistry meterRegistry, AsyncCache<Key, Response> cache, String name) {
+            return new Region(
+                    CaffeineCacheMetrics.monitor(meterRegistry, cache, name),
+                    Counter.builder("cache.coalesced")
+                            .description("Requests which waited for the response loaded by a concurrent request")
+                            .tag("cache", name)
+                            .register(meterRegistry)
+            );
+        }
+    }
+
+    private final Region frameworks;
+
+    private final Region pages;
+
+    private final Region searches;
+
+    private final Map<ResponseFormat, ObjectMapper> objectMappers = new EnumMap<>(ResponseFormat.class);
+
+    private final long compressionMinSize;
+
+    private final Timer serializationTimer;
+
+    private final Timer compressionTimer;
+
+    @Autowired
+    public FrameworkResponseCache(
+            ObjectMapper objectMapper,
+            MappingJackson2CborHttpMessageConverter cborConverter,
+            MeterRegistry meterRegistry,
+            @Value("${frameworks.compression.min-size}") DataSize compressionMinSize,
+            @Value("${frameworks.cache.frameworks-max-size}") DataSize frameworksMaxSize,
+            @Value("${frameworks.cache.pages-max-size}") DataSize pagesMaxSize,
+            @Value("${frameworks.cache.ttl}") Duration ttl,
+            @Value("${frameworks.cache.searches-max-size}") DataSize searchesMaxSize,
+            @Value("${frameworks.cache.searches-ttl}") Duration searchesTtl
+    ) {
+        this.objectMappers.put(ResponseFormat.JSON, objectMapper);
+        this.objectMappers.put(ResponseFormat.CBOR, cborConverter.getObjectMapper());
+        this.compressionMinSize = compressionMinSize.toBytes();
+        this.serializationTimer = Timer.builder("frameworks.serialization")
+                .description("Serialization of responses on cache miss")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.compressionTimer = Timer.builder("frameworks.compression")
+                .description("Compression of responses on cache miss")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.frameworks = Region.monitor(
+                meterRegistry, FrameworkResponseCache.build(frameworksMaxSize, ttl), "frameworks"
+        );
+        this.pages = Region.monitor(
+                meterRegistry, FrameworkResponseCache.build(pagesMaxSize, ttl), "framework-pages"
+        );
+        this.searches = Region.monitor(
+                meterRegistry, FrameworkResponseCache.build(searchesMaxSize, searchesTtl), "framework-searches"
+        );
+    }
+
+    private static AsyncCache<Key, Response> build(DataSize maxSize, Duration ttl) {
+        return Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((Key key, Response value) -> ENTRY_OVERHEAD + value.body().length)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+    }
+
+    /**
+     * Serialized framework with the given ID, the loader is called only when it isn't cached.
+     */
+    public Response framework(Long id, Variant variant, Supplier<?> loader) {
+        return get(frameworks, new Key(id, variant.format(), variant.coding()), loader);
+    }
+
+    /**
+     * Serialized list or search page, the key must be equal for requests with equal response.
+     */
+    public Response page(Object key, Variant variant, Supplier<?> loader) {
+        return get(pages, new Key(key, variant.format(), variant.coding()), loader);
+    }
+
+    /**
+     * Serialized search results, the key must be equal for requests with equal response.
+     */
+    public Response search(Object key, Variant variant, Supplier<?> loader) {
+        return get(searches, new Key(key, variant.format(), variant.coding()), loader);
+    }
+
+    /**
+     * Evicts the framework and all pages once the current transaction commits.
+     */
+    public void evict(Long id) {
+        afterCommit(() -> {
+            frameworks.cache().synchronous().invalidateAll(variantKeys(id));
+            invalidatePages();
+        });
+    }
+
+    /**
+     * Evicts all pages once the current transaction commits, for writes that don't change any cached framework.
+     */
+    public void evictPages() {
+        afterCommit(this::invalidatePages);
+    }
+
+    /**
+     * Evicts all search results, for changes of the index not made by changes of frameworks.
+     */
+    public void evictSearches() {
+        searches.cache().synchronous().invalidateAll();
+    }
+
+    public void clear() {
+        frameworks.cache().synchronous().invalidateAll();
+        invalidatePages();
+    }
+
+    private static List<Key> variantKeys(Long id) {
+        List<Key> keys = new ArrayList<>();
+        for (ResponseFormat format : ResponseFormat.values()) {
+            for (ContentCoding coding : ContentCoding.values()) {
+                keys.add(new Key(id, format, coding));
+            }
+        }
+        return keys;
+    }
+
+    private void invalidatePages() {
+        pages.cache().synchronous().invalidateAll();
+        searches.cache().synchronous().invalidateAll();
+    }
+
+    /**
+     * Cached response or the response loaded by the calling thread. The cache holds an incomplete future while the
+     * response is loaded, an eviction in the meantime removes it, so the loaded response isn't cached stale.
+     */
+    private Response get(Region region, Key key, Supplier<?> loader) {
+        CompletableFuture<Response> loading = new CompletableFuture<>();
+        CompletableFuture<Response> response = region.cache().get(key, (k, executor) -> loading);
+        if (response == loading) {
+            try {
+                loading.complete(load(region, key, loader));
+            } catch (RuntimeException | Error e) {
+                // Failed futures are removed from the cache, waiting requests fail too
+                loading.completeExceptionally(e);
+                throw e;
+            }
+        } else if (!response.isDone()) {
+            region.coalesced().increment();
+        }
+        try {
+            return response.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    private Response load(Region region, Key key, Supplier<?> loader) {
+        if (key.coding() == ContentCoding.IDENTITY) {
+            Object loaded = loader.get();
+            Long revision = loaded instanceof FrameworkView view ? view.revision() : null;
+            return new Response(serialize(key.format(), loaded), key.format(), ContentCoding.IDENTITY, revision);
+        }
+        Response uncompressed = get(region, new Key(key.key(), key.format(), ContentCoding.IDENTITY), loader);
+        if (uncompressed.body().length < compressionMinSize) {
+            return uncompressed;
+        }
+        long start = System.nanoTime();
+        try {
+            return new Response(
+                    key.coding().encode(uncompressed.body()), key.format(), key.coding(), uncompressed.revision()
+            );
+        } finally {
+            compressionTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private byte[] serialize(ResponseFormat format, Object response) {
+        long start = System.nanoTime();
+        try {
+            return objectMappers.get(format).writeValueAsBytes(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Response can't be serialized.", e);
+        } finally {
+            serializationTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static void afterCommit(Runnable eviction) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            eviction.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                eviction.run();
+            }
+        });
+    }
+
+}
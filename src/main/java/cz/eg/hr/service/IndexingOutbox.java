@@ -0,0 +1,90 @@
+package cz.eg.hr.service;
+
+import cz.eg.hr.data.JavascriptFramework;
+import jakarta.persistence.EntityManagerFactory;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import org.hibernate.search.mapper.orm.Search;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * View of the Hibernate Search outbox. Write transactions only insert events about changed entities into the outbox
+ * table, a background processor applies them to the index in batches and deletes them. Events which failed too many
+ * times are aborted and stay in the table, they are not counted as pending.
+ */
+@Component
+public class IndexingOutbox {
+
+    private static final String PENDING_EVENTS = " FROM hsearch_outbox_event WHERE status = 0";
+
+    private static final long CHECK_INTERVAL_MILLIS = 10;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final Duration waitTimeout;
+
+    @Autowired
+    public IndexingOutbox(
+            JdbcTemplate jdbcTemplate,
+            EntityManagerFactory entityManagerFactory,
+            @Value("${frameworks.indexing.wait-timeout}") Duration waitTimeout
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+        this.waitTimeout = waitTimeout;
+    }
+
+    public long pendingEvents() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*)" + PENDING_EVENTS, Long.class);
+    }
+
+    /**
+     * Age of the oldest pending event, zero when the index is up to date.
+     */
+    public Duration lag() {
+        Timestamp oldest = jdbcTemplate.queryForObject("SELECT MIN(process_after)" + PENDING_EVENTS, Timestamp.class);
+        if (oldest == null) {
+            return Duration.ZERO;
+        }
+        Duration lag = Duration.between(oldest.toInstant(), Instant.now());
+        return lag.isNegative() ? Duration.ZERO : lag;
+    }
+
+    public boolean awaitIndexed() {
+        return awaitIndexed(waitTimeout);
+    }
+
+    /**
+     * Waits until all changes committed so far are indexed and visible to searches. Meant to be called after the write
+     * transaction, to read own writes.
+     *
+     * @return {@code false} when the changes were not indexed in time
+     */
+    public boolean awaitIndexed(Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        Long lastEvent = jdbcTemplate.queryForObject("SELECT MAX(id)" + PENDING_EVENTS, Long.class);
+        if (lastEvent != null) {
+            String sql = "SELECT COUNT(*)" + PENDING_EVENTS + " AND id <= ?";
+            while (jdbcTemplate.queryForObject(sql, Long.class, lastEvent) > 0) {
+                if (System.nanoTime() > deadline) {
+                    return false;
+                }
+                try {
+                    Thread.sleep(CHECK_INTERVAL_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        // Indexed changes are visible to searches only after refresh, which is otherwise periodic
+        Search.mapping(entityManagerFactory).scope(JavascriptFramework.class).workspace().refresh();
+        return true;
+    }
+}
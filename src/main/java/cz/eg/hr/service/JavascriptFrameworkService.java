@@ -1,34 +1,459 @@
 package cz.eg.hr.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cz.eg.hr.data.CatalogueRevision;
+import cz.eg.hr.data.DeprecatingVersion;
+import cz.eg.hr.data.FrameworkChange;
+import cz.eg.hr.data.FrameworkSummary;
+import cz.eg.hr.data.FrameworkVersion;
+import cz.eg.hr.data.FrameworkVersionRow;
 import cz.eg.hr.data.JavascriptFramework;
+import cz.eg.hr.data.SemanticVersion;
+import cz.eg.hr.data.VersionMatch;
+import cz.eg.hr.data.VersionRange;
+import cz.eg.hr.repository.FrameworkChangeRepository;
+import cz.eg.hr.repository.FrameworkVersionRepository;
 import cz.eg.hr.repository.JavascriptFrameworkRepository;
+import cz.eg.hr.rest.BatchItemResult;
+import cz.eg.hr.rest.ChangeEntry;
+import cz.eg.hr.rest.ChangePage;
+import cz.eg.hr.rest.DeprecationPage;
+import cz.eg.hr.rest.FrameworkPage;
+import cz.eg.hr.rest.FrameworkProjection;
+import cz.eg.hr.rest.FrameworkView;
+import cz.eg.hr.rest.SearchFacets;
+import cz.eg.hr.rest.SearchHit;
+import cz.eg.hr.rest.SearchPage;
+import cz.eg.hr.rest.SearchQuery;
+import cz.eg.hr.rest.SearchSort;
+import cz.eg.hr.rest.ValidationError;
+import cz.eg.hr.rest.VersionPage;
+import cz.eg.hr.rest.VersionView;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import org.hibernate.search.engine.search.aggregation.AggregationKey;
+import org.hibernate.search.engine.search.predicate.dsl.PredicateFinalStep;
+import org.hibernate.search.engine.search.predicate.dsl.SearchPredicateFactory;
+import org.hibernate.search.engine.search.projection.dsl.ProjectionFinalStep;
+import org.hibernate.search.engine.search.projection.dsl.SearchProjectionFactory;
+import org.hibernate.search.engine.search.query.SearchResult;
+import org.hibernate.search.engine.search.sort.dsl.SearchSortFactory;
+import org.hibernate.search.engine.search.sort.dsl.SortFinalStep;
 import org.hibernate.search.mapper.orm.Search;
+import org.hibernate.search.mapper.orm.common.EntityReference;
 import org.hibernate.search.mapper.orm.session.SearchSession;
+import org.hibernate.search.util.common.data.Range;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
+@Timed(value = "frameworks.service", histogram = true)
 public class JavascriptFrameworkService {
 
+    private static final Logger log = LoggerFactory.getLogger(JavascriptFrameworkService.class);
+
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    public static final int EXPORT_CHUNK_SIZE = 100;
+
+    public static final int MAX_BATCH_SIZE = 10000;
+
+    public static final int BATCH_CHUNK_SIZE = 500;
+
+    public static final int MAX_SEARCH_PAGE_SIZE = 100;
+
+    public static final int MAX_SUGGESTIONS = 20;
+
+    private static final AggregationKey<Map<Integer, Long>> RATING_FACET = AggregationKey.of("rating");
+
+    private static final AggregationKey<Map<Range<LocalDate>, Long>> SUPPORT_FACET = AggregationKey.of("support");
+
+    /**
+     * Deepest position of a search hit that can be requested, Lucene has to collect all hits up to it.
+     */
+    public static final int MAX_SEARCH_WINDOW = 10000;
+
     private final JavascriptFrameworkRepository repository;
 
+    private final FrameworkVersionRepository versionRepository;
+
+    private final FrameworkChangeRepository changeRepository;
+
+    private final ChangeLog changeLog;
+
     private final EntityManager em;
 
+    private final Validator validator;
+
+    private final FrameworkResponseCache responseCache;
+
+    private final MeterRegistry meterRegistry;
+
+    private final ObjectMapper objectMapper;
+
+    private final ReplicationRole role;
+
+    private final VoteTally voteTally;
+
     @Autowired
     public JavascriptFrameworkService(
             EntityManager entityManager,
-            JavascriptFrameworkRepository javascriptFrameworkRepository
+            JavascriptFrameworkRepository javascriptFrameworkRepository,
+            Validator validator,
+            FrameworkResponseCache responseCache,
+            MeterRegistry meterRegistry,
+            ObjectMapper objectMapper,
+            FrameworkVersionRepository frameworkVersionRepository,
+            FrameworkChangeRepository frameworkChangeRepository,
+            ChangeLog changeLog,
+            @Value("${frameworks.replication.role}") ReplicationRole role,
+            VoteTally voteTally
     ) {
         this.em = entityManager;
         this.repository = javascriptFrameworkRepository;
+        this.validator = validator;
+        this.responseCache = responseCache;
+        this.meterRegistry = meterRegistry;
+        this.objectMapper = objectMapper;
+        this.versionRepository = frameworkVersionRepository;
+        this.changeRepository = frameworkChangeRepository;
+        this.changeLog = changeLog;
+        this.role = role;
+        this.voteTally = voteTally;
+    }
+
+    @Transactional(readOnly = true)
+    public JavascriptFramework get(Long id) {
+        return repository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Framework with ID " + id + " not found."));
+    }
+
+    /**
+     * Framework with its versions loaded by a single projection query, for reading only.
+     */
+    @Transactional(readOnly = true)
+    public FrameworkView getView(Long id) {
+        List<FrameworkView> views = views(repository.findViewRowsByIdIn(List.of(id)));
+        if (views.isEmpty()) {
+            throw new IllegalArgumentException("Framework with ID " + id + " not found.");
+        }
+        return views.get(0);
+    }
+
+    /**
+     * Revision of the whole catalogue computed by a single aggregate query.
+     */
+    @Transactional(readOnly = true)
+    public CatalogueRevision getCatalogueRevision() {
+        return repository.getCatalogueRevision();
+    }
+
+    @Transactional(readOnly = true)
+    public List<FrameworkView> listAll() {
+        return views(repository.findAllViewRows());
+    }
+
+    /**
+     * Keyset paginated versions deprecated between the given days, both inclusive, ordered by deprecation date and ID.
+     * Every page is read from the deprecation date index, so it takes the same time wherever it is.
+     *
+     * @param after cursor of the previous page, {@code null} for the first page
+     * @param limit maximum number of versions on the page
+     */
+    @Transactional(readOnly = true)
+    public DeprecationPage listDeprecating(LocalDate from, LocalDate to, String after, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE + ".");
+        }
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Date from must not be after date to.");
+        }
+        LocalDate afterDate = from;
+        Long afterId = Long.MIN_VALUE;
+        if (after != null) {
+            String[] cursor = after.split(":", 2);
+            try {
+                afterDate = LocalDate.parse(cursor[0]);
+                afterId = Long.valueOf(cursor.length == 2 ? cursor[1] : "");
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor " + after + ".");
+            }
+            if (afterDate.isBefore(from)) {
+                afterDate = from;
+                afterId = Long.MIN_VALUE;
+            }
+        }
+        // One extra version tells whether there is a next page without issuing a count query
+        List<DeprecatingVersion> versions = versionRepository.findDeprecatingAfter(
+                afterDate,
+                afterId,
+                to,
+                PageRequest.of(0, limit + 1)
+        );
+        if (versions.size() <= limit) {
+            return new DeprecationPage(versions, null);
+        }
+        DeprecatingVersion last = versions.get(limit - 1);
+        return new DeprecationPage(versions.subList(0, limit), last.deprecationDate() + ":" + last.id());
+    }
+
+    /**
+     * Keyset paginated semantic versions in the npm style range, in semantic versioning order and by ID. The range is
+     * evaluated by the database on the parsed version columns, versions which are not semantic versions never match.
+     *
+     * @param after cursor of the previous page, {@code null} for the first page
+     * @param limit maximum number of versions on the page
+     */
+    @Transactional(readOnly = true)
+    public VersionPage listVersions(String range, String after, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE + ".");
+        }
+        VersionRange versionRange = VersionRange.parse(range);
+        SemanticVersion afterVersion = null;
+        Long afterId = null;
+        if (after != null) {
+            int separator = after.lastIndexOf(':');
+            try {
+                afterVersion = SemanticVersion.parse(after.substring(0, Math.max(separator, 0)));
+                afterId = Long.valueOf(after.substring(separator + 1));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid cursor " + after + ".");
+            }
+        }
+        // One extra version tells whether there is a next page without issuing a count query
+        List<VersionMatch> versions = versionRepository.findInRange(versionRange, afterVersion, afterId, limit + 1);
+        if (versions.size() <= limit) {
+            return new VersionPage(versions, null);
+        }
+        VersionMatch last = versions.get(limit - 1);
+        return new VersionPage(versions.subList(0, limit), SemanticVersion.parse(last.version()) + ":" + last.id());
+    }
+
+    /**
+     * Parses versions saved before the semantic version columns existed. Versions which are not semantic versions are
+     * read again at every startup, they stay unparsed.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void parseVersions() {
+        if (role == ReplicationRole.REPLICA) {
+            // The database is written by the primary
+            return;
+        }
+        int parsed = 0;
+        for (FrameworkVersion version : versionRepository.findAllUnparsed()) {
+            version.setVersion(version.getVersion());
+            if (version.getMajor() != null) {
+                parsed++;
+            }
+        }
+        if (parsed > 0) {
+            log.info("Semantic versions of {} versions parsed", parsed);
+        }
+    }
+
+    /**
+     * Changes of frameworks following the given sequence number in the order they were committed. Frameworks of the
+     * page are loaded by a single query in their current state, so a client applying the changes in order ends up with
+     * the current catalogue.
+     *
+     * @param since sequence number of the last change the client has seen, {@code 0} for all changes
+     * @param limit maximum number of changes on the page
+     */
+    @Transactional(readOnly = true)
+    public ChangePage listChanges(long since, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE + ".");
+        }
+        List<FrameworkChange> changes = changeRepository.findAfter(since, PageRequest.of(0, limit + 1));
+        boolean more = changes.size() > limit;
+        if (more) {
+            changes = changes.subList(0, limit);
+        }
+        Map<Long, FrameworkView> views = viewsById(changes.stream()
+                .filter(change -> change.getType() != FrameworkChange.Type.DELETED)
+                .map(FrameworkChange::getFrameworkId)
+                .distinct()
+                .toList());
+        List<ChangeEntry> entries = changes.stream()
+                .map(change -> new ChangeEntry(
+                        change.getSeq(),
+                        change.getFrameworkId(),
+                        change.getType(),
+                        change.getChangedAt(),
+                        change.getType() == FrameworkChange.Type.DELETED ? null : views.get(change.getFrameworkId())
+                ))
+                .toList();
+        long nextSince = entries.isEmpty() ? since : entries.get(entries.size() - 1).seq();
+        return new ChangePage(entries, nextSince, more);
+    }
+
+    /**
+     * Version summaries of all frameworks ordered by ID. They are stored with the frameworks, so versions are not read.
+     */
+    @Transactional(readOnly = true)
+    public List<FrameworkSummary> listSummaries() {
+        return repository.findAllSummaries();
+    }
+
+    /**
+     * Refreshes summaries outdated by passed deprecation dates, only frameworks whose next deprecation date has come
+     * are loaded. Runs daily and at startup, the application may not have been running at midnight.
+     */
+    @Scheduled(cron = "${frameworks.summary.refresh-cron}")
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void refreshSummaries() {
+        if (role == ReplicationRole.REPLICA) {
+            // Refreshed by the primary, replicas get them from the change log
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        List<JavascriptFramework> outdated = repository.findAllWithOutdatedSummary(today);
+        for (JavascriptFramework framework : outdated) {
+            framework.refreshSummary(today);
+            responseCache.evict(framework.getId());
+            changeLog.record(framework.getId(), FrameworkChange.Type.UPDATED);
+        }
+        if (!outdated.isEmpty()) {
+            log.info("Version summaries of {} frameworks refreshed", outdated.size());
+        }
     }
 
+    /**
+     * Keyset paginated listing ordered by ID. Frameworks of the whole page are loaded with their versions by a single
+     * query, so the cost of a request depends only on the page size, not on the size of the table.
+     *
+     * @param after ID of the last framework of the previous page, {@code null} for the first page
+     * @param limit maximum number of frameworks on the page
+     */
     @Transactional(readOnly = true)
-    public Iterable<JavascriptFramework> listAll() {
-        return repository.findAll();
+    public FrameworkPage listAll(Long after, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE + ".");
+        }
+        // One extra ID tells whether there is a next page without issuing a count query
+        List<Long> ids = repository.findIdsAfter(
+                after == null ? Long.MIN_VALUE : after,
+                PageRequest.of(0, limit + 1)
+        );
+        Long nextCursor = null;
+        if (ids.size() > limit) {
+            ids = ids.subList(0, limit);
+            nextCursor = ids.get(limit - 1);
+        }
+        if (ids.isEmpty()) {
+            return new FrameworkPage(List.of(), null);
+        }
+        return new FrameworkPage(views(repository.findViewRowsByIdIn(ids)), nextCursor);
+    }
+
+    /**
+     * Passes all frameworks ordered by ID to the consumer in chunks. Rows of the projection are read by a forward only
+     * cursor and grouped into frameworks as they come, no entities are loaded, so memory use doesn't depend on the size
+     * of the table.
+     */
+    @Transactional(readOnly = true)
+    public void exportAll(Consumer<List<FrameworkView>> chunkConsumer) {
+        List<FrameworkView> chunk = new ArrayList<>(EXPORT_CHUNK_SIZE);
+        try (Stream<FrameworkVersionRow> rows = repository.streamAllViewRows()) {
+            groupRows(rows.iterator(), view -> {
+                chunk.add(view);
+                if (chunk.size() == EXPORT_CHUNK_SIZE) {
+                    chunkConsumer.accept(chunk);
+                    chunk.clear();
+                }
+            });
+        }
+        if (!chunk.isEmpty()) {
+            chunkConsumer.accept(chunk);
+        }
+    }
+
+    /**
+     * Views of the frameworks built from projection rows ordered by framework ID.
+     */
+    private static List<FrameworkView> views(List<FrameworkVersionRow> rows) {
+        List<FrameworkView> views = new ArrayList<>();
+        groupRows(rows.iterator(), views::add);
+        return views;
+    }
+
+    /**
+     * Views of the frameworks with the given IDs by ID, frameworks deleted in the meantime are missing.
+     */
+    private Map<Long, FrameworkView> viewsById(List<Long> ids) {
+        Map<Long, FrameworkView> views = new HashMap<>();
+        if (!ids.isEmpty()) {
+            groupRows(repository.findViewRowsByIdIn(ids).iterator(), view -> views.put(view.id(), view));
+        }
+        return views;
+    }
+
+    /**
+     * Groups consecutive rows of the same framework into a view and passes it to the consumer.
+     */
+    private static void groupRows(Iterator<FrameworkVersionRow> rows, Consumer<FrameworkView> consumer) {
+        FrameworkVersionRow framework = null;
+        List<VersionView> versions = new ArrayList<>();
+        while (rows.hasNext()) {
+            FrameworkVersionRow row = rows.next();
+            if (framework != null && !framework.id().equals(row.id())) {
+                consumer.accept(view(framework, versions));
+                versions = new ArrayList<>();
+            }
+            framework = row;
+            if (row.versionId() != null) {
+                versions.add(new VersionView(row.versionId(), row.version(), row.deprecationDate()));
+            }
+        }
+        if (framework != null) {
+            consumer.accept(view(framework, versions));
+        }
+    }
+
+    private static FrameworkView view(FrameworkVersionRow row, List<VersionView> versions) {
+        return new FrameworkView(
+                row.id(),
+                row.name(),
+                row.description(),
+                row.rating(),
+                Collections.unmodifiableList(versions),
+                row.revision()
+        );
     }
 
     @Transactional
@@ -38,29 +463,492 @@ public class JavascriptFrameworkService {
                     "Framework with name " + framework.getName() + " already exists."
             );
         }
-        return repository.save(framework);
+        responseCache.evictPages();
+        JavascriptFramework created = repository.save(framework);
+        changeLog.record(created.getId(), FrameworkChange.Type.CREATED);
+        return created;
     }
 
     @Transactional
     public JavascriptFramework update(Long id, JavascriptFramework framework) {
-        if (!repository.existsById(id)) {
-            throw new IllegalArgumentException("Framework with ID " + id + " not found.");
+        return update(id, framework, null);
+    }
+
+    /**
+     * Replaces the framework and increments its revision.
+     *
+     * @param expectedRevision revision the client based the change on, {@code null} to overwrite any revision
+     * @throws OptimisticLockingFailureException when the framework has a different revision
+     */
+    @Transactional
+    public JavascriptFramework update(Long id, JavascriptFramework framework, Long expectedRevision) {
+        Long revision = repository.findRevisionById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Framework with ID " + id + " not found."));
+        if (expectedRevision != null && !expectedRevision.equals(revision)) {
+            throw new OptimisticLockingFailureException("Framework with ID " + id + " was modified.");
         }
         framework.setId(id);
-        return repository.save(framework);
+        // Merge checks the revision again, so a concurrent change between the query and the update is detected too
+        framework.setRevision(revision);
+        framework.refreshSummary(LocalDate.now());
+        responseCache.evict(id);
+        JavascriptFramework saved = repository.save(framework);
+        changeLog.record(id, FrameworkChange.Type.UPDATED);
+        em.flush();
+        if (revision.equals(saved.getRevision())) {
+            // Only versions were changed, they don't increment the revision of the framework
+            em.lock(saved, LockModeType.PESSIMISTIC_FORCE_INCREMENT);
+        }
+        // Changes of versions alone are not detected by automatic indexing
+        Search.session(em).indexingPlan().addOrUpdate(saved);
+        return saved;
+    }
+
+    /**
+     * Creates frameworks without ID and updates frameworks with ID. Items are processed in chunks, names of a chunk are
+     * checked by a single query and the chunk is written through JDBC batching and evicted from the persistence
+     * context. Invalid items are reported in the result and don't prevent the other items from being saved. Items are
+     * applied in order, so an item can take a name freed by an earlier item, and a framework can be saved only once.
+     */
+    @Transactional
+    public List<BatchItemResult> saveAll(List<JavascriptFramework> frameworks) {
+        if (frameworks.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Batch can contain at most " + MAX_BATCH_SIZE + " frameworks.");
+        }
+        List<BatchItemResult> results = new ArrayList<>(frameworks.size());
+        responseCache.evictPages();
+        Set<Long> savedIds = new HashSet<>();
+        SearchSession searchSession = Search.session(em);
+        for (int from = 0; from < frameworks.size(); from += BATCH_CHUNK_SIZE) {
+            List<JavascriptFramework> chunk = frameworks.subList(
+                    from,
+                    Math.min(from + BATCH_CHUNK_SIZE, frameworks.size())
+            );
+            Map<Long, Long> mergedRevisions = new HashMap<>();
+            results.addAll(saveChunk(from, chunk, savedIds, mergedRevisions));
+            em.flush();
+            mergedRevisions.forEach((id, revision) -> {
+                JavascriptFramework saved = em.find(JavascriptFramework.class, id);
+                if (revision.equals(saved.getRevision())) {
+                    // Only versions were changed, they don't increment the revision of the framework
+                    em.lock(saved, LockModeType.PESSIMISTIC_FORCE_INCREMENT);
+                }
+            });
+            // Send the chunk to the indexing outbox now, the entities are no longer in the session at commit
+            searchSession.indexingPlan().execute();
+            em.clear();
+        }
+        return results;
+    }
+
+    private List<BatchItemResult> saveChunk(
+            int offset,
+            List<JavascriptFramework> chunk,
+            Set<Long> savedIds,
+            Map<Long, Long> mergedRevisions
+    ) {
+        Map<Long, JavascriptFramework> existing = new HashMap<>();
+        repository.findAllById(chunk.stream().map(JavascriptFramework::getId).filter(Objects::nonNull).toList())
+                .forEach(f -> existing.put(f.getId(), f));
+        // Owners of the names the chunk claims or frees, kept up to date as the items are applied
+        Map<String, Long> owners = new HashMap<>();
+        existing.values().forEach(f -> owners.put(f.getName(), f.getId()));
+        repository.findAllByNameIn(chunk.stream().map(JavascriptFramework::getName).filter(Objects::nonNull).toList())
+                .forEach(f -> owners.put(f.getName(), f.getId()));
+        Set<String> freedNames = new HashSet<>();
+
+        List<BatchItemResult> results = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            JavascriptFramework framework = chunk.get(i);
+            List<ValidationError> errors = validate(framework);
+            if (errors.isEmpty()) {
+                String conflict = findConflict(framework, existing.keySet(), savedIds, owners);
+                if (conflict != null) {
+                    errors = List.of(new ValidationError(null, conflict));
+                }
+            }
+            if (!errors.isEmpty()) {
+                results.add(new BatchItemResult(offset + i, null, errors));
+                continue;
+            }
+            if (freedNames.contains(framework.getName())) {
+                // Inserts and ordered updates could precede the update freeing the name, so it's written first
+                em.flush();
+                freedNames.clear();
+            }
+            if (framework.getId() != null) {
+                JavascriptFramework current = existing.get(framework.getId());
+                if (!current.getName().equals(framework.getName())) {
+                    owners.remove(current.getName());
+                    freedNames.add(current.getName());
+                }
+                framework.setRevision(current.getRevision());
+                mergedRevisions.put(framework.getId(), current.getRevision());
+                framework.refreshSummary(LocalDate.now());
+                responseCache.evict(framework.getId());
+            }
+            boolean created = framework.getId() == null;
+            JavascriptFramework saved = repository.save(framework);
+            if (!created) {
+                Search.session(em).indexingPlan().addOrUpdate(saved);
+            }
+            changeLog.record(saved.getId(), created ? FrameworkChange.Type.CREATED : FrameworkChange.Type.UPDATED);
+            owners.put(saved.getName(), saved.getId());
+            savedIds.add(saved.getId());
+            results.add(new BatchItemResult(offset + i, saved.getId(), List.of()));
+        }
+        return results;
+    }
+
+    private List<ValidationError> validate(JavascriptFramework framework) {
+        return validator.validate(framework).stream()
+                .map(v -> new ValidationError(v.getPropertyPath().toString(), v.getMessage()))
+                .toList();
+    }
+
+    private static String findConflict(
+            JavascriptFramework framework,
+            Set<Long> existingIds,
+            Set<Long> savedIds,
+            Map<String, Long> owners
+    ) {
+        Long id = framework.getId();
+        String name = framework.getName();
+        if (id != null && !existingIds.contains(id)) {
+            return "Framework with ID " + id + " not found.";
+        }
+        if (id != null && savedIds.contains(id)) {
+            return "Framework with ID " + id + " is already saved by the batch.";
+        }
+        Long owner = owners.get(name);
+        if (owner != null && !owner.equals(id)) {
+            return "Framework with name " + name + " already exists.";
+        }
+        return null;
     }
 
     @Transactional
     public void delete(Long id) {
+        responseCache.evict(id);
+        voteTally.remove(id);
         repository.deleteById(id);
+        changeLog.record(id, FrameworkChange.Type.DELETED);
     }
 
+    /**
+     * Applies a JSON Merge Patch (RFC 7386) to the framework. Only the properties present in the patch are changed,
+     * the update statement contains only the changed columns. Versions in the patch replace the current versions, but
+     * they are matched by the version string, so rows of kept versions are updated only when their deprecation date
+     * changes and only added and removed versions are inserted and deleted.
+     *
+     * @param expectedRevision revision the client based the change on, {@code null} to patch any revision
+     * @throws OptimisticLockingFailureException when the framework has a different revision
+     */
+    @Transactional
+    public JavascriptFramework patch(Long id, JsonNode patch, Long expectedRevision) {
+        if (!patch.isObject()) {
+            throw new IllegalArgumentException("Patch must be a JSON object.");
+        }
+        JavascriptFramework framework = getForUpdate(id, expectedRevision);
+        LocalDate lastDeprecationDate = framework.getLastDeprecationDate();
+        boolean versionsChanged = false;
+        for (Iterator<Map.Entry<String, JsonNode>> fields = patch.fields(); fields.hasNext(); ) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            JsonNode value = field.getValue();
+            switch (field.getKey()) {
+                case "name" -> rename(framework, patchValue(field, String.class));
+                case "description" -> framework.setDescription(patchValue(field, String.class));
+                case "rating" -> framework.setRating(patchValue(field, Integer.class));
+                case "versions" -> versionsChanged = replaceVersions(framework, value.isNull()
+                        ? List.of()
+                        : List.of(patchValue(field, FrameworkVersion[].class)));
+                default -> throw new IllegalArgumentException("Property " + field.getKey() + " can't be patched.");
+            }
+        }
+        Set<ConstraintViolation<JavascriptFramework>> violations = validator.validate(framework);
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+        return saveVersionChanges(framework, versionsChanged, lastDeprecationDate);
+    }
+
+    /**
+     * Adds a version to the framework, the other versions are not touched.
+     */
+    @Transactional
+    public FrameworkVersion addVersion(Long id, FrameworkVersion version, Long expectedRevision) {
+        JavascriptFramework framework = getForUpdate(id, expectedRevision);
+        LocalDate lastDeprecationDate = framework.getLastDeprecationDate();
+        FrameworkVersion added = new FrameworkVersion(version.getVersion(), version.getDeprecationDate());
+        framework.addVersion(added);
+        saveVersionChanges(framework, true, lastDeprecationDate);
+        return added;
+    }
+
+    /**
+     * Removes the version of the framework, the other versions are not touched.
+     *
+     * @return the framework without the version
+     */
+    @Transactional
+    public JavascriptFramework deleteVersion(Long id, Long versionId, Long expectedRevision) {
+        JavascriptFramework framework = getForUpdate(id, expectedRevision);
+        LocalDate lastDeprecationDate = framework.getLastDeprecationDate();
+        FrameworkVersion version = framework.getVersions().stream()
+                .filter(v -> v.getId().equals(versionId))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "Version with ID " + versionId + " of framework with ID " + id + " not found."
+                ));
+        framework.removeVersion(version);
+        return saveVersionChanges(framework, true, lastDeprecationDate);
+    }
+
+    private JavascriptFramework getForUpdate(Long id, Long expectedRevision) {
+        JavascriptFramework framework = get(id);
+        if (expectedRevision != null && expectedRevision != framework.getRevision()) {
+            throw new OptimisticLockingFailureException("Framework with ID " + id + " was modified.");
+        }
+        responseCache.evict(id);
+        return framework;
+    }
+
+    private void rename(JavascriptFramework framework, String name) {
+        if (name != null && !name.equals(framework.getName()) && repository.existsByName(name)) {
+            throw new IllegalArgumentException("Framework with name " + name + " already exists.");
+        }
+        framework.setName(name);
+    }
+
+    private <T> T patchValue(Map.Entry<String, JsonNode> field, Class<T> type) {
+        try {
+            return objectMapper.treeToValue(field.getValue(), type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid value of property " + field.getKey() + ".");
+        }
+    }
+
+    /**
+     * Makes the versions of the framework equal to the given versions with the least changes of rows.
+     *
+     * @return whether any version was changed
+     */
+    private static boolean replaceVersions(JavascriptFramework framework, List<FrameworkVersion> versions) {
+        List<FrameworkVersion> added = new ArrayList<>(versions);
+        boolean changed = false;
+        for (FrameworkVersion current : List.copyOf(framework.getVersions())) {
+            FrameworkVersion match = added.stream()
+                    .filter(v -> Objects.equals(v.getVersion(), current.getVersion()))
+                    .findFirst()
+                    .orElse(null);
+            if (match == null) {
+                framework.removeVersion(current);
+                changed = true;
+            } else {
+                added.remove(match);
+                if (!Objects.equals(match.getDeprecationDate(), current.getDeprecationDate())) {
+                    current.setDeprecationDate(match.getDeprecationDate());
+                    changed = true;
+                }
+            }
+        }
+        added.forEach(v -> framework.addVersion(new FrameworkVersion(v.getVersion(), v.getDeprecationDate())));
+        return changed || !added.isEmpty();
+    }
+
+    /**
+     * Refreshes the summary of changed versions and flushes dirty-checked changes of the framework. The revision is
+     * incremented also when only versions were changed. Changes of the framework's own fields are indexed automatically
+     * when an indexed field changed, changes of versions only when they change the indexed last deprecation date.
+     */
+    private JavascriptFramework saveVersionChanges(
+            JavascriptFramework framework,
+            boolean versionsChanged,
+            LocalDate lastDeprecationDate
+    ) {
+        long revision = framework.getRevision();
+        if (versionsChanged) {
+            framework.refreshSummary(LocalDate.now());
+        }
+        em.flush();
+        if (versionsChanged && revision == framework.getRevision()) {
+            em.lock(framework, LockModeType.PESSIMISTIC_FORCE_INCREMENT);
+        }
+        if (versionsChanged || revision != framework.getRevision()) {
+            changeLog.record(framework.getId(), FrameworkChange.Type.UPDATED);
+        }
+        if (!Objects.equals(lastDeprecationDate, framework.getLastDeprecationDate())) {
+            Search.session(em).indexingPlan().addOrUpdate(framework);
+        }
+        return framework;
+    }
+
+    /**
+     * All frameworks matching the text ordered by relevance. The index returns only IDs, the frameworks are then
+     * loaded by a single projection query.
+     */
     @Transactional(readOnly = true)
-    public List<JavascriptFramework> fulltextSearch(String text) {
+    public List<FrameworkView> fulltextSearch(String text) {
         SearchSession searchSession = Search.session(em);
-        return searchSession.search(JavascriptFramework.class)
-                .where(f -> f.match().fields("name", "description").matching(text))
-                .fetchAllHits();
+        List<Long> ids = timed("fulltext", searchSession.search(JavascriptFramework.class)
+                .select(f -> f.id(Long.class))
+                .where(f -> matchText(f, text))
+                .fetchAll()
+        ).hits();
+        // Frameworks deleted since they were indexed are left out
+        Map<Long, FrameworkView> views = viewsById(ids);
+        return ids.stream().map(views::get).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * One page of fulltext search hits. Filters, sorting and facet counts are all evaluated by the index in a single
+     * query, only the frameworks on the page are loaded from the database.
+     */
+    @Transactional(readOnly = true)
+    public SearchPage<FrameworkView> fulltextSearch(SearchQuery query) {
+        SearchPage<Long> page = search(query, f -> f.id(Long.class));
+        Map<Long, FrameworkView> views = viewsById(page.hits().stream().map(SearchHit::item).toList());
+        List<SearchHit<FrameworkView>> hits = page.hits().stream()
+                .filter(hit -> views.containsKey(hit.item()))
+                .map(hit -> new SearchHit<>(hit.score(), views.get(hit.item())))
+                .toList();
+        return new SearchPage<>(page.total(), hits, page.facets());
+    }
+
+    /**
+     * Same as {@link #fulltextSearch(SearchQuery)}, but hits are built from fields stored in the index only. There is
+     * no transaction, so the database is not touched at all.
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public SearchPage<FrameworkProjection> fulltextSearchProjection(SearchQuery query) {
+        return search(query, JavascriptFrameworkService::frameworkProjection);
+    }
+
+    private <T> SearchPage<T> search(
+            SearchQuery query,
+            Function<SearchProjectionFactory<EntityReference, JavascriptFramework>, ProjectionFinalStep<T>> item
+    ) {
+        checkSearchPage(query.offset(), query.limit());
+        LocalDate today = LocalDate.now();
+        var search = Search.session(em)
+                .search(JavascriptFramework.class)
+                .select(f -> f.composite(
+                        (Float score, T value) -> new SearchHit<>(score, value),
+                        f.score(),
+                        item.apply(f)
+                ))
+                .where(f -> filteredQuery(f, query, today))
+                .sort(f -> sort(f, query.sort()));
+        if (query.facets()) {
+            search = search
+                    .aggregation(RATING_FACET, f -> f.terms().field("rating", Integer.class))
+                    .aggregation(SUPPORT_FACET, f -> f.range().field("lastDeprecationDate", LocalDate.class)
+                            .range(Range.greaterThan(today))
+                            .range(Range.atMost(today))
+                    );
+        }
+        SearchResult<SearchHit<T>> result = timed("page", search.fetch(query.offset(), query.limit()));
+        SearchFacets facets = null;
+        if (query.facets()) {
+            Map<Range<LocalDate>, Long> support = result.aggregation(SUPPORT_FACET);
+            facets = new SearchFacets(
+                    result.aggregation(RATING_FACET),
+                    support.getOrDefault(Range.greaterThan(today), 0L),
+                    support.getOrDefault(Range.atMost(today), 0L)
+            );
+        }
+        return new SearchPage<>(result.total().hitCount(), result.hits(), facets);
+    }
+
+    private static PredicateFinalStep filteredQuery(SearchPredicateFactory f, SearchQuery query, LocalDate today) {
+        return f.bool(b -> {
+            b.must(query.text() == null ? f.matchAll() : matchText(f, query.text()));
+            if (query.minRating() != null || query.maxRating() != null) {
+                b.filter(f.range().field("rating").between(query.minRating(), query.maxRating()));
+            }
+            if (Boolean.TRUE.equals(query.supported())) {
+                b.filter(f.range().field("lastDeprecationDate").greaterThan(today));
+            } else if (Boolean.FALSE.equals(query.supported())) {
+                b.filter(f.range().field("lastDeprecationDate").atMost(today));
+            }
+        });
+    }
+
+    private static SortFinalStep sort(SearchSortFactory f, SearchSort sort) {
+        if (sort == null) {
+            return f.score();
+        }
+        return switch (sort) {
+            case RELEVANCE -> f.score();
+            case RATING -> f.field("rating").desc().then().score();
+            case NAME -> f.field("name_sort");
+        };
+    }
+
+    /**
+     * Suggestions of frameworks for partially typed or misspelled name, meant to be called on every keystroke.
+     * Prefixes of name words are looked up in the autocomplete field. Only when nothing matches, names within one typo
+     * (a swap of two letters counts as one) are searched by a fuzzy query, which is considerably more expensive. Only
+     * the index is queried.
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public List<FrameworkProjection> suggest(String text, int limit) {
+        if (limit < 1 || limit > MAX_SUGGESTIONS) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_SUGGESTIONS + ".");
+        }
+        SearchSession searchSession = Search.session(em);
+        List<FrameworkProjection> suggestions = timed("suggest", searchSession.search(JavascriptFramework.class)
+                .select(f -> frameworkProjection(f))
+                .where(f -> f.match().field("name_autocomplete").matching(text))
+                .fetch(limit)
+        ).hits();
+        if (!suggestions.isEmpty()) {
+            return suggestions;
+        }
+        return timed("suggest-fuzzy", searchSession.search(JavascriptFramework.class)
+                .select(f -> frameworkProjection(f))
+                .where(f -> f.match().field("name").matching(text).fuzzy(1, 1))
+                .fetch(limit)
+        ).hits();
+    }
+
+    /**
+     * Records the time the index took to execute the query, loading of entities is not included.
+     */
+    private <R extends SearchResult<?>> R timed(String query, R result) {
+        Timer.builder("search.query")
+                .description("Execution of fulltext queries by the index")
+                .tag("query", query)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(result.took());
+        return result;
+    }
+
+    private static PredicateFinalStep matchText(SearchPredicateFactory f, String text) {
+        return f.match().fields("name", "description").matching(text);
+    }
+
+    private static ProjectionFinalStep<FrameworkProjection> frameworkProjection(
+            SearchProjectionFactory<?, ?> f
+    ) {
+        return f.composite(
+                (Long id, String name, String description) -> new FrameworkProjection(id, name, description),
+                f.id(Long.class),
+                f.field("name", String.class),
+                f.field("description", String.class)
+        );
+    }
+
+    private static void checkSearchPage(int offset, int limit) {
+        if (limit < 1 || limit > MAX_SEARCH_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_SEARCH_PAGE_SIZE + ".");
+        }
+        if (offset < 0 || offset + limit > MAX_SEARCH_WINDOW) {
+            throw new IllegalArgumentException(
+                    "Offset must be between 0 and " + (MAX_SEARCH_WINDOW - limit) + "."
+            );
+        }
     }
 
 }
@@ -0,0 +1,187 @@
+package cz.eg.hr.service;
+
+import cz.eg.hr.data.FrameworkChange;
+import cz.eg.hr.data.FrameworkVersion;
+import cz.eg.hr.data.JavascriptFramework;
+import cz.eg.hr.repository.FrameworkChangeRepository;
+import cz.eg.hr.repository.FrameworkVersionRepository;
+import cz.eg.hr.repository.JavascriptFrameworkRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.hibernate.Cache;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.search.mapper.orm.Search;
+import org.hibernate.search.mapper.orm.session.SearchSession;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Keeps a replica up to date with the primary. Nodes share the database, but every node has its own fulltext index
+ * and caches and only the primary processes the indexing outbox. The replica polls the change log for changes committed
+ * after the last applied one, reindexes changed frameworks into its own index, purges deleted ones and evicts them from
+ * the entity and response caches. Changes committed before the replica started are found by the consistency check of
+ * the index, which the replica profile enables.
+ * <p>
+ * Applied changes are published as {@link ChangeLog.Committed}, so the change feed of the replica streams them too.
+ * The replica is behind the primary by {@code replication.lag}, the age of the oldest change not applied yet.
+ */
+@Component
+@ConditionalOnProperty(name = "frameworks.replication.role", havingValue = "replica")
+public class ReplicaSync {
+
+    private final EntityManager em;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final JavascriptFrameworkRepository repository;
+
+    private final FrameworkChangeRepository changeRepository;
+
+    private final FrameworkVersionRepository versionRepository;
+
+    private final FrameworkResponseCache responseCache;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final TransactionTemplate transaction;
+
+    private final int batchSize;
+
+    /**
+     * Sequence number of the last applied change, written only by the polling thread.
+     */
+    private volatile long appliedSeq;
+
+    @Autowired
+    public ReplicaSync(
+            EntityManager entityManager,
+            EntityManagerFactory entityManagerFactory,
+            JavascriptFrameworkRepository javascriptFrameworkRepository,
+            FrameworkChangeRepository frameworkChangeRepository,
+            FrameworkVersionRepository frameworkVersionRepository,
+            FrameworkResponseCache responseCache,
+            ApplicationEventPublisher eventPublisher,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${frameworks.replication.batch-size}") int batchSize
+    ) {
+        this.em = entityManager;
+        this.entityManagerFactory = entityManagerFactory;
+        this.repository = javascriptFrameworkRepository;
+        this.changeRepository = frameworkChangeRepository;
+        this.versionRepository = frameworkVersionRepository;
+        this.responseCache = responseCache;
+        this.eventPublisher = eventPublisher;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.appliedSeq = frameworkChangeRepository.findLastSeq();
+        Gauge.builder("replication.lag", this, sync -> sync.lag().toNanos() / 1e9)
+                .description("Age of the oldest change of the primary not applied by the replica")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("replication.pending", this, ReplicaSync::pendingChanges)
+                .description("Number of changes of the primary not applied by the replica")
+                .register(meterRegistry);
+    }
+
+    public long getAppliedSeq() {
+        return appliedSeq;
+    }
+
+    public long pendingChanges() {
+        return changeRepository.countAfter(appliedSeq);
+    }
+
+    /**
+     * Age of the oldest change not applied yet, zero when the replica is up to date.
+     */
+    public Duration lag() {
+        Instant oldest = changeRepository.findOldestChangedAtAfter(appliedSeq);
+        if (oldest == null) {
+            return Duration.ZERO;
+        }
+        Duration lag = Duration.between(oldest, Instant.now());
+        return lag.isNegative() ? Duration.ZERO : lag;
+    }
+
+    /**
+     * Applies all changes committed since the last poll, in batches.
+     */
+    @Scheduled(fixedDelayString = "${frameworks.replication.poll-interval}")
+    public void poll() {
+        List<FrameworkChange> changes;
+        do {
+            changes = changeRepository.findAfter(appliedSeq, PageRequest.of(0, batchSize));
+            if (!changes.isEmpty()) {
+                apply(changes);
+            }
+        } while (changes.size() == batchSize);
+    }
+
+    private void apply(List<FrameworkChange> changes) {
+        Set<Long> ids = changes.stream()
+                .map(FrameworkChange::getFrameworkId)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        evictEntities(ids);
+        // Frameworks are indexed in their current state, a framework missing in the database was deleted
+        transaction.executeWithoutResult(status -> {
+            SearchSession searchSession = Search.session(em);
+            Set<Long> deleted = new HashSet<>(ids);
+            for (JavascriptFramework framework : repository.findAllById(ids)) {
+                searchSession.indexingPlan().addOrUpdate(framework);
+                deleted.remove(framework.getId());
+            }
+            deleted.forEach(id -> searchSession.indexingPlan().purge(JavascriptFramework.class, id, null));
+        });
+        // Searches see the changes before the cached responses are evicted, so they can't be cached again stale
+        Search.mapping(entityManagerFactory).scope(JavascriptFramework.class).workspace().refresh();
+        ids.forEach(responseCache::evict);
+        long lastSeq = changes.get(changes.size() - 1).getSeq();
+        appliedSeq = lastSeq;
+        eventPublisher.publishEvent(new ChangeLog.Committed(lastSeq));
+    }
+
+    /**
+     * Evicts the changed frameworks, their version collections and their current versions. Versions removed by the
+     * primary stay cached until they expire, the reloaded collections don't reference them anymore. Cached query
+     * results over the tables are invalidated by their update timestamps, as after a write of the replica itself.
+     */
+    private void evictEntities(Set<Long> ids) {
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        Cache cache = sessionFactory.getCache();
+        for (Long id : ids) {
+            cache.evictEntityData(JavascriptFramework.class, id);
+            cache.evictCollectionData(JavascriptFramework.class.getName() + ".versions", id);
+        }
+        List<String> querySpaces = new ArrayList<>();
+        sessionFactory.getMappingMetamodel().getEntityDescriptor(JavascriptFramework.class)
+                .visitQuerySpaces(querySpaces::add);
+        sessionFactory.getMappingMetamodel().getEntityDescriptor(FrameworkVersion.class)
+                .visitQuerySpaces(querySpaces::add);
+        transaction.executeWithoutResult(status -> {
+            // Changed versions are not logged by their IDs
+            versionRepository.findIdsByFrameworkIdIn(ids)
+                    .forEach(versionId -> cache.evictEntityData(FrameworkVersion.class, versionId));
+            sessionFactory.getCache().getTimestampsCache()
+                    .invalidate(querySpaces.toArray(String[]::new), em.unwrap(SharedSessionContractImplementor.class));
+        });
+    }
+}
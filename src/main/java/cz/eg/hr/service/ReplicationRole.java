@@ -0,0 +1,19 @@
+package cz.eg.hr.service;
+
+/**
+ * Role of the node when more nodes share the database, set by {@code frameworks.replication.role}. A single node is the
+ * primary.
+ */
+public enum ReplicationRole {
+
+    /**
+     * Accepts writes and processes the indexing outbox.
+     */
+    PRIMARY,
+
+    /**
+     * Serves reads from its own index and caches, kept up to date by {@link ReplicaSync}, and redirects writes to the
+     * primary.
+     */
+    REPLICA
+}
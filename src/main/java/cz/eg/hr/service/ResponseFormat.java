@@ -0,0 +1,52 @@
+package cz.eg.hr.service;
+
+import java.util.List;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+/**
+ * Format of serialized responses. CBOR is a binary encoding of the same JSON data model written by the same mapping,
+ * smaller and cheaper to write and parse for clients that fetch in bulk.
+ */
+public enum ResponseFormat {
+
+    JSON(MediaType.APPLICATION_JSON),
+    CBOR(MediaType.APPLICATION_CBOR);
+
+    private final MediaType mediaType;
+
+    ResponseFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Format preferred by the {@code Accept} header. JSON is the default, also for wildcards and unsupported or
+     * invalid headers, CBOR is chosen only when it's accepted with higher quality than JSON.
+     */
+    public static ResponseFormat negotiate(String accept) {
+        if (accept == null) {
+            return JSON;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return JSON;
+        }
+        return quality(accepted, CBOR) > quality(accepted, JSON) ? CBOR : JSON;
+    }
+
+    private static double quality(List<MediaType> accepted, ResponseFormat format) {
+        double quality = 0;
+        for (MediaType mediaType : accepted) {
+            if (mediaType.includes(format.mediaType)) {
+                quality = Math.max(quality, mediaType.getQualityValue());
+            }
+        }
+        return quality;
+    }
+}
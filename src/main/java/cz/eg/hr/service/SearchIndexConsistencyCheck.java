@@ -0,0 +1,226 @@
+package cz.eg.hr.service;
+
+import cz.eg.hr.data.FrameworkRevision;
+import cz.eg.hr.data.JavascriptFramework;
+import cz.eg.hr.repository.JavascriptFrameworkRepository;
+import jakarta.persistence.EntityManager;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
+import org.hibernate.search.engine.search.query.SearchScroll;
+import org.hibernate.search.engine.search.query.SearchScrollResult;
+import org.hibernate.search.mapper.orm.Search;
+import org.hibernate.search.mapper.orm.session.SearchSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Check of the fulltext index against the database, meant for persistent storage where the index can miss changes
+ * lost by a crash. Revisions of frameworks are read from both sides in ID order and compared as they come, so memory
+ * use doesn't depend on the size of the catalogue. Missing and outdated documents are reindexed and documents of
+ * deleted frameworks are purged, through the outbox like other changes. An empty index is rebuilt instead. The check
+ * also completes every rebuild, which doesn't remove documents.
+ * <p>
+ * Changes of versions alone are not always indexed, those frameworks have an older revision in the index and are
+ * reindexed too, which costs only time. With {@code frameworks.index-check.enabled} the check runs in background once
+ * the application is ready, so it doesn't delay startup.
+ */
+@Component
+public class SearchIndexConsistencyCheck {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchIndexConsistencyCheck.class);
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final EntityManager em;
+
+    private final JavascriptFrameworkRepository repository;
+
+    private final SearchIndexRebuilder searchIndexRebuilder;
+
+    private final TransactionTemplate transaction;
+
+    private final boolean enabled;
+
+    @Autowired
+    public SearchIndexConsistencyCheck(
+            EntityManager entityManager,
+            JavascriptFrameworkRepository javascriptFrameworkRepository,
+            SearchIndexRebuilder searchIndexRebuilder,
+            PlatformTransactionManager transactionManager,
+            @Value("${frameworks.index-check.enabled}") boolean enabled
+    ) {
+        this.em = entityManager;
+        this.repository = javascriptFrameworkRepository;
+        this.searchIndexRebuilder = searchIndexRebuilder;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkInBackground() {
+        if (!enabled) {
+            return;
+        }
+        Thread thread = new Thread(() -> {
+            try {
+                check();
+            } catch (RuntimeException e) {
+                log.error("Check of the search index failed", e);
+            }
+        }, "search-index-check");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Purges documents left by frameworks deleted behind the back of the index, which a rebuild only replacing
+     * documents keeps.
+     */
+    @EventListener
+    public void searchIndexRebuilt(SearchIndexRebuilder.Completed event) {
+        check();
+    }
+
+    /**
+     * Compares the index with the database and sends the differences to the outbox, or starts a rebuild when the index
+     * is empty. Changes are searchable once the outbox is processed.
+     */
+    public void check() {
+        long start = System.nanoTime();
+        transaction.executeWithoutResult(status -> {
+            SearchSession searchSession = Search.session(em);
+            long documents = searchSession.search(JavascriptFramework.class)
+                    .where(f -> f.matchAll())
+                    .fetchTotalHitCount();
+            if (documents == 0 && repository.count() > 0) {
+                log.info("Search index is empty, rebuilding it");
+                searchIndexRebuilder.start();
+                return;
+            }
+            Differences differences = new Differences(searchSession);
+            try (
+                Stream<FrameworkRevision> database = repository.streamRevisions();
+                SearchScroll<FrameworkRevision> index = searchSession.search(JavascriptFramework.class)
+                        .select(f -> f.composite(
+                                (Long id, Long revision) -> new FrameworkRevision(id, revision),
+                                f.id(Long.class),
+                                f.field("revision", Long.class)
+                        ))
+                        .where(f -> f.matchAll())
+                        .sort(f -> f.field("id"))
+                        .scroll(BATCH_SIZE)
+            ) {
+                compare(database.iterator(), new ScrollIterator(index), differences);
+            }
+            differences.flush();
+            log.info("Search index checked in {}, {} documents reindexed and {} purged",
+                    Duration.ofNanos(System.nanoTime() - start), differences.reindexed, differences.purged);
+        });
+    }
+
+    private static void compare(
+            Iterator<FrameworkRevision> database,
+            Iterator<FrameworkRevision> index,
+            Differences differences
+    ) {
+        FrameworkRevision stored = database.hasNext() ? database.next() : null;
+        FrameworkRevision indexed = index.hasNext() ? index.next() : null;
+        while (stored != null || indexed != null) {
+            int order = stored == null ? 1 : indexed == null ? -1 : stored.id().compareTo(indexed.id());
+            if (order < 0) {
+                differences.reindex(stored.id());
+            } else if (order > 0) {
+                differences.purge(indexed.id());
+            } else if (stored.revision() != indexed.revision()) {
+                differences.reindex(stored.id());
+            }
+            if (order <= 0) {
+                stored = database.hasNext() ? database.next() : null;
+            }
+            if (order >= 0) {
+                indexed = index.hasNext() ? index.next() : null;
+            }
+        }
+    }
+
+    /**
+     * Differences found so far, frameworks to reindex are loaded and sent to the outbox in batches.
+     */
+    private class Differences {
+
+        private final SearchSession searchSession;
+
+        private final List<Long> outdated = new ArrayList<>(BATCH_SIZE);
+
+        private long reindexed;
+
+        private long purged;
+
+        private Differences(SearchSession searchSession) {
+            this.searchSession = searchSession;
+        }
+
+        private void reindex(Long id) {
+            outdated.add(id);
+            if (outdated.size() == BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        private void purge(Long id) {
+            searchSession.indexingPlan().purge(JavascriptFramework.class, id, null);
+            purged++;
+        }
+
+        private void flush() {
+            repository.findAllById(outdated).forEach(searchSession.indexingPlan()::addOrUpdate);
+            reindexed += outdated.size();
+            outdated.clear();
+            // Send the batch to the outbox now, the entities are no longer in the session at commit
+            searchSession.indexingPlan().execute();
+            em.clear();
+        }
+    }
+
+    private static class ScrollIterator implements Iterator<FrameworkRevision> {
+
+        private final SearchScroll<FrameworkRevision> scroll;
+
+        private Iterator<FrameworkRevision> chunk = List.<FrameworkRevision>of().iterator();
+
+        private boolean exhausted;
+
+        private ScrollIterator(SearchScroll<FrameworkRevision> scroll) {
+            this.scroll = scroll;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!chunk.hasNext() && !exhausted) {
+                SearchScrollResult<FrameworkRevision> next = scroll.next();
+                exhausted = !next.hasHits();
+                chunk = next.hits().iterator();
+            }
+            return chunk.hasNext();
+        }
+
+        @Override
+        public FrameworkRevision next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return chunk.next();
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package cz.eg.hr.service;
+
+import cz.eg.hr.data.JavascriptFramework;
+import cz.eg.hr.rest.ReindexStatus;
+import cz.eg.hr.rest.ReindexStatus.State;
+import jakarta.persistence.EntityManagerFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.LongAdder;
+import org.hibernate.search.mapper.orm.Search;
+import org.hibernate.search.mapper.pojo.massindexing.MassIndexingMonitor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rebuild of the fulltext index from the database, needed after changes of the mapping or analyzers. Frameworks are
+ * loaded and indexed by several threads in parallel. The Lucene backend can't build a new index aside and swap it, so
+ * documents are replaced in place and searches are served by the complete index, partially old, during the rebuild.
+ * Documents of frameworks no longer in the database are purged once all frameworks are indexed, by the
+ * {@link SearchIndexConsistencyCheck} listening to {@link Completed}, and cached searches are evicted then. Changes
+ * made during the rebuild are indexed through the outbox as usual. Only one rebuild runs at a time.
+ */
+@Component
+public class SearchIndexRebuilder {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchIndexRebuilder.class);
+
+    /**
+     * Published when all frameworks were indexed by a rebuild, before it's reported as completed.
+     */
+    public record Completed() {
+    }
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final FrameworkResponseCache responseCache;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final int threadsToLoadObjects;
+
+    private final int batchSize;
+
+    private final int idFetchSize;
+
+    private volatile Progress current;
+
+    @Autowired
+    public SearchIndexRebuilder(
+            EntityManagerFactory entityManagerFactory,
+            FrameworkResponseCache responseCache,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${frameworks.reindex.threads-to-load-objects}") int threadsToLoadObjects,
+            @Value("${frameworks.reindex.batch-size}") int batchSize,
+            @Value("${frameworks.reindex.id-fetch-size}") int idFetchSize
+    ) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.responseCache = responseCache;
+        this.eventPublisher = eventPublisher;
+        this.threadsToLoadObjects = threadsToLoadObjects;
+        this.batchSize = batchSize;
+        this.idFetchSize = idFetchSize;
+    }
+
+    /**
+     * Starts the rebuild in background.
+     *
+     * @return progress of the started rebuild, {@code null} when a rebuild is already running
+     */
+    public synchronized ReindexStatus start() {
+        if (current != null && current.state == State.RUNNING) {
+            return null;
+        }
+        Progress progress = new Progress();
+        current = progress;
+        Search.mapping(entityManagerFactory).scope(JavascriptFramework.class).massIndexer()
+                .threadsToLoadObjects(threadsToLoadObjects)
+                .batchSizeToLoadObjects(batchSize)
+                .idFetchSize(idFetchSize)
+                // Documents are replaced, an emptied index would miss frameworks not indexed yet
+                .purgeAllOnStart(false)
+                .mergeSegmentsOnFinish(true)
+                .monitor(progress)
+                .start()
+                .whenComplete((result, failure) -> finish(progress, failure));
+        return progress.status();
+    }
+
+    private void finish(Progress progress, Throwable failure) {
+        if (failure == null) {
+            try {
+                eventPublisher.publishEvent(new Completed());
+                responseCache.evictSearches();
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+        }
+        progress.finish(failure);
+    }
+
+    /**
+     * Progress of the running or the last rebuild, {@code null} when there was none.
+     */
+    public ReindexStatus status() {
+        Progress progress = current;
+        return progress == null ? null : progress.status();
+    }
+
+    private static class Progress implements MassIndexingMonitor {
+
+        private final Instant started = Instant.now();
+
+        private final LongAdder total = new LongAdder();
+
+        private final LongAdder indexed = new LongAdder();
+
+        private volatile Instant finished;
+
+        private volatile String failure;
+
+        private volatile State state = State.RUNNING;
+
+        @Override
+        public void documentsAdded(long increment) {
+            indexed.add(increment);
+        }
+
+        @Override
+        public void documentsBuilt(long increment) {
+        }
+
+        @Override
+        public void entitiesLoaded(long increment) {
+        }
+
+        @Override
+        public void addToTotalCount(long increment) {
+            total.add(increment);
+        }
+
+        @Override
+        public void indexingCompleted() {
+        }
+
+        private void finish(Throwable cause) {
+            finished = Instant.now();
+            if (cause == null) {
+                state = State.COMPLETED;
+                ReindexStatus status = status();
+                log.info("Search index rebuilt, {} frameworks indexed in {} ({} per second)",
+                        status.indexed(), Duration.between(started, finished), status.documentsPerSecond());
+            } else {
+                failure = cause.getMessage();
+                state = State.FAILED;
+                log.error("Rebuild of the search index failed", cause);
+            }
+        }
+
+        private ReindexStatus status() {
+            Instant end = finished == null ? Instant.now() : finished;
+            long millis = Math.max(Duration.between(started, end).toMillis(), 1);
+            long done = indexed.sum();
+            return new ReindexStatus(state, total.sum(), done, done * 1000.0 / millis, started, finished, failure);
+        }
+    }
+}
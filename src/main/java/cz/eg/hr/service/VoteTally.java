@@ -0,0 +1,265 @@
+package cz.eg.hr.service;
+
+import cz.eg.hr.data.FrameworkVoteTally;
+import cz.eg.hr.repository.FrameworkVoteTallyRepository;
+import cz.eg.hr.repository.JavascriptFrameworkRepository;
+import cz.eg.hr.rest.VoteSummary;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * User votes for frameworks, one to five stars. Votes are counted in memory by striped counters, one per framework
+ * and number of stars, so concurrent votes don't wait for any lock, and every {@code frameworks.votes.flush-interval}
+ * they are added to the stored tallies by a batch of MERGE statements in one transaction. Summaries are computed from
+ * the counters without querying the database, the stored tally of a framework is read by its first vote or summary.
+ * Votes not stored yet are lost by a crash, a graceful shutdown stores them.
+ * <p>
+ * Replicas redirect votes to the primary and read the stored tallies of frameworks they know at every flush interval
+ * instead.
+ */
+@Component
+public class VoteTally implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(VoteTally.class);
+
+    public static final int MAX_STARS = 5;
+
+    /**
+     * Adds votes to the tally of an existing framework, votes of a framework deleted in the meantime are dropped.
+     */
+    private static final String MERGE_VOTES =
+            "MERGE INTO framework_vote_tally t"
+            + " USING (SELECT f.id, CAST(? AS BIGINT) stars1, CAST(? AS BIGINT) stars2, CAST(? AS BIGINT) stars3,"
+            + " CAST(? AS BIGINT) stars4, CAST(? AS BIGINT) stars5"
+            + " FROM javascript_framework f WHERE f.id = ?) v"
+            + " ON t.framework_id = v.id"
+            + " WHEN MATCHED THEN UPDATE SET stars1 = t.stars1 + v.stars1, stars2 = t.stars2 + v.stars2,"
+            + " stars3 = t.stars3 + v.stars3, stars4 = t.stars4 + v.stars4, stars5 = t.stars5 + v.stars5"
+            + " WHEN NOT MATCHED THEN INSERT (framework_id, stars1, stars2, stars3, stars4, stars5)"
+            + " VALUES (v.id, v.stars1, v.stars2, v.stars3, v.stars4, v.stars5)";
+
+    private final JavascriptFrameworkRepository frameworkRepository;
+
+    private final FrameworkVoteTallyRepository tallyRepository;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transaction;
+
+    private final ReplicationRole role;
+
+    private final Map<Long, Tally> tallies = new ConcurrentHashMap<>();
+
+    private final Counter votesCounter;
+
+    private final Timer flushTimer;
+
+    @Autowired
+    public VoteTally(
+            JavascriptFrameworkRepository javascriptFrameworkRepository,
+            FrameworkVoteTallyRepository frameworkVoteTallyRepository,
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${frameworks.replication.role}") ReplicationRole role
+    ) {
+        this.frameworkRepository = javascriptFrameworkRepository;
+        this.tallyRepository = frameworkVoteTallyRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.role = role;
+        this.votesCounter = Counter.builder("frameworks.votes")
+                .description("Votes of users received")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("frameworks.votes.flush")
+                .description("Storing of received votes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Counts the vote, it's stored by the next flush.
+     *
+     * @throws IllegalArgumentException when the stars are out of range or the framework doesn't exist
+     */
+    public void vote(Long frameworkId, int stars) {
+        if (stars < 1 || stars > MAX_STARS) {
+            throw new IllegalArgumentException("Stars must be between 1 and " + MAX_STARS + ".");
+        }
+        tally(frameworkId).received[stars - 1].increment();
+        votesCounter.increment();
+    }
+
+    /**
+     * Stored and received votes of the framework.
+     *
+     * @throws IllegalArgumentException when the framework doesn't exist
+     */
+    public VoteSummary summary(Long frameworkId) {
+        Tally tally = tally(frameworkId);
+        long[] stored = tally.stored;
+        Map<Integer, Long> histogram = new LinkedHashMap<>();
+        long votes = 0;
+        long stars = 0;
+        for (int i = 0; i < MAX_STARS; i++) {
+            long count = stored[i] + tally.received[i].sum();
+            histogram.put(i + 1, count);
+            votes += count;
+            stars += count * (i + 1);
+        }
+        return new VoteSummary(votes, votes == 0 ? null : (double) stars / votes, histogram);
+    }
+
+    /**
+     * Removes the tally of a deleted framework, in the transaction deleting it. Its votes not stored yet are dropped
+     * once the transaction commits, so a rollback keeps them. A tally recreated by a vote racing the deletion is
+     * dropped by the next flush.
+     */
+    public void remove(Long frameworkId) {
+        tallyRepository.deleteByFrameworkId(frameworkId);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            tallies.remove(frameworkId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                tallies.remove(frameworkId);
+            }
+        });
+    }
+
+    private Tally tally(Long frameworkId) {
+        Tally tally = tallies.get(frameworkId);
+        if (tally != null) {
+            return tally;
+        }
+        if (!frameworkRepository.existsById(frameworkId)) {
+            throw new IllegalArgumentException("Framework with ID " + frameworkId + " not found.");
+        }
+        Tally loaded = new Tally(tallyRepository.findById(frameworkId)
+                .map(FrameworkVoteTally::getVotes)
+                .orElseGet(() -> new long[MAX_STARS]));
+        Tally concurrent = tallies.putIfAbsent(frameworkId, loaded);
+        return concurrent == null ? loaded : concurrent;
+    }
+
+    /**
+     * Stores votes received since the last flush, on a replica reads the stored tallies instead.
+     */
+    @Scheduled(fixedDelayString = "${frameworks.votes.flush-interval}")
+    public synchronized void flush() {
+        if (role == ReplicationRole.REPLICA) {
+            tallyRepository.findAllById(tallies.keySet()).forEach(stored -> {
+                Tally tally = tallies.get(stored.getFrameworkId());
+                if (tally != null) {
+                    tally.stored = stored.getVotes();
+                }
+            });
+            return;
+        }
+        List<Object[]> batch = new ArrayList<>();
+        List<Long> frameworkIds = new ArrayList<>();
+        List<Tally> written = new ArrayList<>();
+        List<long[]> deltas = new ArrayList<>();
+        tallies.forEach((frameworkId, tally) -> {
+            long[] delta = tally.unwritten();
+            long total = 0;
+            Object[] parameters = new Object[MAX_STARS + 1];
+            for (int i = 0; i < MAX_STARS; i++) {
+                parameters[i] = delta[i];
+                total += delta[i];
+            }
+            if (total > 0) {
+                parameters[MAX_STARS] = frameworkId;
+                batch.add(parameters);
+                frameworkIds.add(frameworkId);
+                written.add(tally);
+                deltas.add(delta);
+            }
+        });
+        if (batch.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        // All or nothing, so votes of a failed flush are stored once by the next one
+        int[] merged = transaction.execute(status -> jdbcTemplate.batchUpdate(MERGE_VOTES, batch));
+        for (int i = 0; i < written.size(); i++) {
+            if (merged[i] == 0) {
+                // The framework was deleted, the tally isn't needed anymore
+                tallies.remove(frameworkIds.get(i), written.get(i));
+            } else {
+                written.get(i).written(deltas.get(i));
+            }
+        }
+        flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Received votes could not be stored", e);
+        }
+    }
+
+    /**
+     * Votes of a framework. Counters of received votes only grow, the part already stored is remembered, so votes
+     * received during a flush are never lost or stored twice.
+     */
+    private static class Tally {
+
+        /**
+         * Stored votes when the tally was loaded, refreshed only on replicas.
+         */
+        private volatile long[] stored;
+
+        private final LongAdder[] received = new LongAdder[MAX_STARS];
+
+        /**
+         * Received votes stored by flushes, accessed only by the flushing thread.
+         */
+        private final long[] written = new long[MAX_STARS];
+
+        private Tally(long[] stored) {
+            this.stored = stored;
+            for (int i = 0; i < MAX_STARS; i++) {
+                received[i] = new LongAdder();
+            }
+        }
+
+        private long[] unwritten() {
+            long[] delta = new long[MAX_STARS];
+            for (int i = 0; i < MAX_STARS; i++) {
+                delta[i] = received[i].sum() - written[i];
+            }
+            return delta;
+        }
+
+        private void written(long[] delta) {
+            for (int i = 0; i < MAX_STARS; i++) {
+                written[i] += delta[i];
+            }
+        }
+    }
+}
@@ -1,26 +1,56 @@
 package cz.eg.hr.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.github.luben.zstd.Zstd;
 import cz.eg.hr.data.FrameworkVersion;
 import cz.eg.hr.data.JavascriptFramework;
 import cz.eg.hr.repository.TestJavascriptFrameworkRepository;
+import cz.eg.hr.rest.ReindexStatus;
+import cz.eg.hr.service.ContentCoding;
+import cz.eg.hr.service.FrameworkResponseCache;
+import cz.eg.hr.service.IndexingOutbox;
+import cz.eg.hr.service.JavascriptFrameworkService;
+import cz.eg.hr.service.ResponseFormat;
+import cz.eg.hr.service.SearchIndexConsistencyCheck;
+import cz.eg.hr.service.VoteTally;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.persistence.EntityManager;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+import org.hibernate.search.mapper.orm.Search;
 import static org.hamcrest.MatcherAssert.*;
 import static org.hamcrest.Matchers.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @SpringBootTest
 @AutoConfigureMockMvc
+@AutoConfigureObservability
 class JavascriptFrameworkControllerTest {
 
     private static final MediaType JSON = MediaType.APPLICATION_JSON;
@@ -37,11 +67,36 @@ class JavascriptFrameworkControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private FrameworkResponseCache responseCache;
+
+    @Autowired
+    private IndexingOutbox indexingOutbox;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JavascriptFrameworkService javascriptFrameworkService;
+
+    @Autowired
+    private SearchIndexConsistencyCheck searchIndexConsistencyCheck;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private VoteTally voteTally;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     @BeforeEach
     public void setUp() {
         // Clean up before every test
         repository.deleteAll();
         em.clear();
+        responseCache.clear();
 
         // Put some data to database
         JavascriptFramework angular = new JavascriptFramework("Angular", "Angular is desent", 3);
@@ -55,6 +110,9 @@ class JavascriptFrameworkControllerTest {
         react.addVersion(new FrameworkVersion("2.0", LocalDate.of(2016, 11, 11)));
         react.addVersion(new FrameworkVersion("18.2", null));
         repository.save(react);
+
+        // Indexing runs in background
+        assertThat(indexingOutbox.awaitIndexed(), is(true));
     }
 
     @Test
@@ -65,6 +123,269 @@ class JavascriptFrameworkControllerTest {
                 .andExpect(jsonPath("$[*].name", hasItems("Angular", "React")));
     }
 
+    @Test
+    public void listFrameworks_keysetPages() throws Exception {
+        Long angularId = repository.getByName("Angular").getId();
+        Long reactId = repository.getByName("React").getId();
+
+        mockMvc.perform(get("/frameworks").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].name", is("Angular")))
+                .andExpect(jsonPath("$.items[0].versions", hasSize(3)))
+                .andExpect(jsonPath("$.nextCursor", is(angularId.intValue())));
+
+        mockMvc.perform(get("/frameworks").param("after", angularId.toString()).param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].id", is(reactId.intValue())))
+                .andExpect(jsonPath("$.nextCursor", nullValue()));
+    }
+
+    @Test
+    public void getFramework() throws Exception {
+        Long reactId = repository.getByName("React").getId();
+
+        mockMvc.perform(get("/frameworks/{id}", reactId))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(JSON))
+                .andExpect(jsonPath("$.name", is("React")))
+                .andExpect(jsonPath("$.versions", hasSize(3)));
+    }
+
+    @Test
+    public void getFramework_notExisting() throws Exception {
+        mockMvc.perform(get("/frameworks/{id}", 0))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().json(
+                        "{\"errors\":[{\"field\":null,\"message\":\"Framework with ID 0 not found.\"}]}"
+                ));
+    }
+
+    @Test
+    public void getFramework_cachedUntilUpdated() throws Exception {
+        Long reactId = repository.getByName("React").getId();
+        mockMvc.perform(get("/frameworks/{id}", reactId))
+                .andExpect(jsonPath("$.rating", is(4)));
+        mockMvc.perform(get("/frameworks"))
+                .andExpect(jsonPath("$[?(@.name == 'React')].rating", contains(4)));
+
+        // Changes bypassing the service are not visible
+        JavascriptFramework react = repository.getByName("React");
+        react.setRating(1);
+        repository.save(react);
+        mockMvc.perform(get("/frameworks/{id}", reactId))
+                .andExpect(jsonPath("$.rating", is(4)));
+
+        JavascriptFramework update = new JavascriptFramework("React", "React is better", 5);
+        mockMvc.perform(put("/frameworks/{id}", reactId)
+                        .contentType(JSON)
+                        .content(objectMapper.writeValueAsString(update)))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/frameworks/{id}", reactId))
+                .andExpect(jsonPath("$.rating", is(5)));
+        mockMvc.perform(get("/frameworks"))
+                .andExpect(jsonPath("$[?(@.name == 'React')].rating", contains(5)));
+
+        mockMvc.perform(delete("/frameworks/{id}", reactId))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/frameworks/{id}", reactId))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/frameworks"))
+                .andExpect(jsonPath("$", hasSize(1)));
+    }
+
+    @Test
+    public void cacheMetrics() throws Exception {
+        Long reactId = repository.getByName("React").getId();
+        mockMvc.perform(get("/frameworks/{id}", reactId));
+        mockMvc.perform(get("/frameworks/{id}", reactId));
+
+        mockMvc.perform(get("/actuator/metrics/cache.gets").param("tag", "cache:frameworks", "result:hit"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.measurements[0].value", greaterThanOrEqualTo(1.0)));
+        mockMvc.perform(get("/actuator/metrics/cache.evictions").param("tag", "cache:frameworks"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void prometheusMetrics() throws Exception {
+        mockMvc.perform(get("/frameworks/search").param("text", "React"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString(
+                        "frameworks_service_seconds_count{class=\"cz.eg.hr.service.JavascriptFrameworkService\""
+                )))
+                .andExpect(content().string(containsString("search_query_seconds_count{query=\"fulltext\"")))
+                .andExpect(content().string(containsString("search_indexing_lag_seconds")))
+                .andExpect(content().string(containsString("search_indexing_pending")))
+                .andExpect(content().string(containsString("search_index_size_bytes")))
+                .andExpect(content().string(containsString("hibernate_statements_total")))
+                .andExpect(content().string(containsString(
+                        "http_server_requests_statements_count{method=\"GET\",uri=\"/frameworks/search\""
+                )));
+    }
+
+    @Test
+    public void listFrameworks_invalidLimit() throws Exception {
+        mockMvc.perform(get("/frameworks").param("limit", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().json(
+                        "{\"errors\":[{\"field\":null,\"message\":\"Limit must be between 1 and 1000.\"}]}"
+                ));
+    }
+
+    @Test
+    public void exportFrameworks() throws Exception {
+        MvcResult result = mockMvc.perform(get("/frameworks/export"))
+                .andExpect(request().asyncStarted())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertThat(lines.length, is(2));
+        JavascriptFramework angular = objectMapper.readValue(lines[0], JavascriptFramework.class);
+        assertThat(angular.getName(), is("Angular"));
+        assertThat(angular.getVersions(), hasSize(3));
+        JavascriptFramework react = objectMapper.readValue(lines[1], JavascriptFramework.class);
+        assertThat(react.getName(), is("React"));
+    }
+
+    @Test
+    public void exportFrameworks_compressed() throws Exception {
+        MvcResult result = mockMvc.perform(get("/frameworks/export").header("Accept-Encoding", "gzip"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        byte[] body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        String[] lines = gunzip(body).split("\n");
+        assertThat(lines.length, is(2));
+        assertThat(objectMapper.readValue(lines[1], JavascriptFramework.class).getName(), is("React"));
+    }
+
+    @Test
+    public void getFramework_cbor() throws Exception {
+        Long reactId = repository.getByName("React").getId();
+
+        byte[] body = mockMvc.perform(get("/frameworks/{id}", reactId)
+                        .header("Accept", "application/json;q=0.5, application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(header().string("Vary", containsString("Accept")))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode react = new CBORMapper().readTree(body);
+        assertThat(react.get("name").asText(), is("React"));
+        assertThat(react.get("versions").get(0).get("deprecationDate").asText(), is("2015-10-10"));
+
+        // JSON is preferred unless CBOR is accepted with higher quality
+        mockMvc.perform(get("/frameworks/{id}", reactId).header("Accept", "application/*"))
+                .andExpect(content().contentType(JSON))
+                .andExpect(jsonPath("$.name", is("React")));
+    }
+
+    @Test
+    public void getFramework_eTagOfCachedBody() throws Exception {
+        JavascriptFramework react = repository.getByName("React");
+        String eTag = "\"" + react.getRevision() + "\"";
+        mockMvc.perform(get("/frameworks/{id}", react.getId()))
+                .andExpect(header().string("ETag", eTag))
+                .andExpect(jsonPath("$.revision").doesNotExist());
+
+        // Committed, but not evicted from the cache yet
+        jdbcTemplate.update("UPDATE javascript_framework SET description = 'React is changed', revision = revision + 1"
+                + " WHERE id = ?", react.getId());
+
+        // The cached body keeps its own tag
+        mockMvc.perform(get("/frameworks/{id}", react.getId()))
+                .andExpect(header().string("ETag", eTag))
+                .andExpect(jsonPath("$.description", is("React is better")));
+
+        responseCache.evict(react.getId());
+        mockMvc.perform(get("/frameworks/{id}", react.getId()).header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"" + (react.getRevision() + 1) + "\""))
+                .andExpect(jsonPath("$.description", is("React is changed")));
+    }
+
+    @Test
+    public void getFramework_variantETags() throws Exception {
+        Long reactId = repository.getByName("React").getId();
+        String eTag = mockMvc.perform(get("/frameworks/{id}", reactId))
+                .andReturn().getResponse().getHeader("ETag");
+        String revision = eTag.substring(1, eTag.length() - 1);
+
+        mockMvc.perform(get("/frameworks/{id}", reactId)
+                        .header("Accept", "application/cbor")
+                        .header("Accept-Encoding", "zstd"))
+                .andExpect(header().string("ETag", "\"" + revision + "-cbor-zstd\""));
+        // The tag of JSON doesn't validate CBOR
+        mockMvc.perform(get("/frameworks/{id}", reactId)
+                        .header("Accept", "application/cbor")
+                        .header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"" + revision + "-cbor\""));
+        mockMvc.perform(get("/frameworks/{id}", reactId)
+                        .header("Accept", "application/cbor")
+                        .header("If-None-Match", "\"" + revision + "-cbor\""))
+                .andExpect(status().isNotModified());
+
+        // Tags of all variants match the revision
+        mockMvc.perform(patch("/frameworks/{id}", reactId)
+                        .contentType("application/merge-patch+json")
+                        .header("If-Match", "\"" + revision + "-cbor-zstd\"")
+                        .content("{\"rating\":5}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/frameworks").header("Accept-Encoding", "gzip"))
+                .andExpect(header().string("ETag", endsWith("-gzip\"")));
+    }
+
+    @Test
+    public void listFrameworks_compressed() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            repository.save(new JavascriptFramework("Framework " + i, "Framework number " + i + " for the list", 3));
+        }
+        byte[] plain = mockMvc.perform(get("/frameworks"))
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertThat(plain.length, greaterThan(2048));
+
+        byte[] gzip = mockMvc.perform(get("/frameworks").header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertThat(gunzip(gzip), is(new String(plain, StandardCharsets.UTF_8)));
+
+        byte[] zstd = mockMvc.perform(get("/frameworks").header("Accept-Encoding", "gzip, zstd"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "zstd"))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertThat(Zstd.decompress(zstd, plain.length), is(plain));
+
+        // Small responses are not compressed
+        Long reactId = repository.getByName("React").getId();
+        mockMvc.perform(get("/frameworks/{id}", reactId).header("Accept-Encoding", "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(jsonPath("$.name", is("React")));
+    }
+
+    private static String gunzip(byte[] body) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
     @Test
     public void createFramework() throws Exception {
         JavascriptFramework htmx = new JavascriptFramework("HTMX", "HTMX is the best", 5);
@@ -85,6 +406,21 @@ class JavascriptFrameworkControllerTest {
         assertThat(versions.get(0).getDeprecationDate(), nullValue());
     }
 
+    @Test
+    public void createFramework_waitForIndex() throws Exception {
+        JavascriptFramework htmx = new JavascriptFramework("HTMX", "HTMX is the best", 5);
+        String jsonBody = objectMapper.writeValueAsString(htmx);
+
+        mockMvc.perform(post("/frameworks").param("waitForIndex", "true").contentType(JSON).content(jsonBody))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/frameworks/search").param("text", "HTMX"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].name", is("HTMX")));
+        assertThat(indexingOutbox.pendingEvents(), is(0L));
+    }
+
     @Test
     public void createFramework_duplicity() throws Exception {
         JavascriptFramework angular = new JavascriptFramework("Angular", "Duplicity of Angular", 5);
@@ -145,6 +481,116 @@ class JavascriptFrameworkControllerTest {
                 ));
     }
 
+    @Test
+    public void saveFrameworks_batch() throws Exception {
+        JavascriptFramework vue = new JavascriptFramework("Vue", "Vue is progressive", 4);
+        vue.addVersion(new FrameworkVersion("3.3", null));
+        JavascriptFramework angular = new JavascriptFramework("Angular", "Duplicity of Angular", 5);
+        JavascriptFramework svelte = new JavascriptFramework("Svelte", "Svelte with 0 rating", 0);
+        JavascriptFramework react = new JavascriptFramework("React", "React is the best", 5);
+        react.setId(repository.getByName("React").getId());
+        JavascriptFramework notExisting = new JavascriptFramework("NotExisting", "NotExisting description", 1);
+        notExisting.setId(0L);
+        String jsonBody = objectMapper.writeValueAsString(List.of(vue, angular, svelte, react, notExisting));
+
+        mockMvc.perform(post("/frameworks/batch").contentType(JSON).content(jsonBody))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(5)))
+                .andExpect(jsonPath("$[0].id", notNullValue()))
+                .andExpect(jsonPath("$[0].errors", hasSize(0)))
+                .andExpect(jsonPath("$[1].id", nullValue()))
+                .andExpect(jsonPath("$[1].errors[0].message", is("Framework with name Angular already exists.")))
+                .andExpect(jsonPath("$[2].id", nullValue()))
+                .andExpect(jsonPath("$[2].errors[0].field", is("rating")))
+                .andExpect(jsonPath("$[3].id", is(react.getId().intValue())))
+                .andExpect(jsonPath("$[4].errors[0].message", is("Framework with ID 0 not found.")));
+
+        JavascriptFramework createdVue = repository.getByName("Vue");
+        assertThat(createdVue, notNullValue());
+        assertThat(createdVue.getVersions(), hasSize(1));
+        assertThat(repository.getByName("React").getRating(), is(5));
+        assertThat(repository.getByName("Angular").getDescription(), is("Angular is desent"));
+        assertThat(repository.getByName("Svelte"), nullValue());
+    }
+
+    @Test
+    public void saveFrameworks_batchRevisions() throws Exception {
+        JavascriptFramework angular = repository.getByName("Angular");
+        JavascriptFramework react = repository.getByName("React");
+        JavascriptFramework renamed = new JavascriptFramework("AngularJS", angular.getDescription(), 3);
+        renamed.setId(angular.getId());
+        JavascriptFramework versionAdded = new JavascriptFramework("React", react.getDescription(), 4);
+        versionAdded.setId(react.getId());
+        react.getVersions().forEach(v -> versionAdded.addVersion(new FrameworkVersion(v.getVersion(),
+                v.getDeprecationDate())));
+        versionAdded.addVersion(new FrameworkVersion("19.0", null));
+
+        mockMvc.perform(post("/frameworks/batch")
+                        .contentType(JSON)
+                        .content(objectMapper.writeValueAsString(List.of(renamed, versionAdded))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].errors[*]", hasSize(0)));
+        assertThat(indexingOutbox.awaitIndexed(), is(true));
+
+        // Incremented once, by a change of the framework as well as of its versions alone
+        assertThat(repository.getByName("AngularJS").getRevision(), is(angular.getRevision() + 1));
+        assertThat(repository.getByName("React").getRevision(), is(react.getRevision() + 1));
+        assertThat(indexedRevision(angular.getId()), is(angular.getRevision() + 1));
+        assertThat(indexedRevision(react.getId()), is(react.getRevision() + 1));
+    }
+
+    @Test
+    public void saveFrameworks_batchDuplicateId() throws Exception {
+        Long reactId = repository.getByName("React").getId();
+        JavascriptFramework react = new JavascriptFramework("React", "React is the best", 5);
+        react.setId(reactId);
+        JavascriptFramework reactAgain = new JavascriptFramework("React", "React is the worst", 1);
+        reactAgain.setId(reactId);
+        String jsonBody = objectMapper.writeValueAsString(List.of(react, reactAgain));
+
+        mockMvc.perform(post("/frameworks/batch").contentType(JSON).content(jsonBody))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(reactId.intValue())))
+                .andExpect(jsonPath("$[1].id", nullValue()))
+                .andExpect(jsonPath("$[1].errors[0].message",
+                        is("Framework with ID " + reactId + " is already saved by the batch.")));
+
+        assertThat(repository.getByName("React").getRating(), is(5));
+    }
+
+    @Test
+    public void saveFrameworks_batchRenames() throws Exception {
+        Long angularId = repository.getByName("Angular").getId();
+        Long reactId = repository.getByName("React").getId();
+        JavascriptFramework angularToReact = new JavascriptFramework("React", "Angular renamed", 3);
+        angularToReact.setId(angularId);
+        JavascriptFramework reactToAngular = new JavascriptFramework("Angular", "React renamed", 4);
+        reactToAngular.setId(reactId);
+
+        // A swap would need both names at once, both items are rejected rather than the whole chunk failing
+        mockMvc.perform(post("/frameworks/batch")
+                        .contentType(JSON)
+                        .content(objectMapper.writeValueAsString(List.of(angularToReact, reactToAngular))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].errors[0].message", is("Framework with name React already exists.")))
+                .andExpect(jsonPath("$[1].errors[0].message", is("Framework with name Angular already exists.")));
+
+        JavascriptFramework reactToPreact = new JavascriptFramework("Preact", "React renamed", 4);
+        reactToPreact.setId(reactId);
+        JavascriptFramework newAngular = new JavascriptFramework("Angular", "Angular created again", 2);
+
+        // Names freed by earlier items are taken by later ones
+        mockMvc.perform(post("/frameworks/batch")
+                        .contentType(JSON)
+                        .content(objectMapper.writeValueAsString(List.of(reactToPreact, angularToReact, newAngular))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].errors[*]", hasSize(0)));
+
+        assertThat(repository.getByName("Preact").getId(), is(reactId));
+        assertThat(repository.getByName("React").getId(), is(angularId));
+        assertThat(repository.getByName("Angular").getDescription(), is("Angular created again"));
+    }
+
     @Test
     public void updateFramework_notExisting() throws Exception {
         JavascriptFramework angular = new JavascriptFramework("NotExisting", "NotExisting description", 1);
@@ -247,6 +693,283 @@ class JavascriptFrameworkControllerTest {
         assertThat(updatedAngular.getVersions(), not(hasItem(hasProperty("version", is("7.2")))));
     }
 
+    @Test
+    public void getFramework_notModified() throws Exception {
+        Long reactId = repository.getByName("React").getId();
+        String eTag = mockMvc.perform(get("/frameworks/{id}", reactId))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/frameworks/{id}", reactId).header("If-None-Match", eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", eTag))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    public void listFrameworks_notModifiedUntilChanged() throws Exception {
+        String eTag = mockMvc.perform(get("/frameworks"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(get("/frameworks").header("If-None-Match", eTag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/frameworks").param("limit", "1").header("If-None-Match", eTag))
+                .andExpect(status().isNotModified());
+
+        JavascriptFramework update = new JavascriptFramework("React", "React is better", 5);
+        mockMvc.perform(put("/frameworks/{id}", repository.getByName("React").getId())
+                        .contentType(JSON)
+                        .content(objectMapper.writeValueAsString(update)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/frameworks").header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(eTag)))
+                .andExpect(jsonPath("$[?(@.name == 'React')].rating", contains(5)));
+    }
+
+    @Test
+    public void updateFramework_ifMatch() throws Exception {
+        Long reactId = repository.getByName("React").getId();
+        String eTag = mockMvc.perform(get("/frameworks/{id}", reactId))
+                .andReturn().getResponse().getHeader("ETag");
+        JavascriptFramework update = new JavascriptFramework("React", "React is better", 5);
+        update.addVersion(new FrameworkVersion("19.0", null));
+        String jsonBody = objectMapper.writeValueAsString(update);
+
+        String newETag = mockMvc.perform(put("/frameworks/{id}", reactId)
+                        .header("If-Match", eTag)
+                        .contentType(JSON)
+                        .content(jsonBody))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(eTag)))
+                .andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(get("/frameworks/{id}", reactId))
+                .andExpect(header().string("ETag", newETag));
+
+        mockMvc.perform(put("/frameworks/{id}", reactId)
+                        .header("If-Match", eTag)
+                        .contentType(JSON)
+                        .content(jsonBody))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(content().json(
+                        "{\"errors\":[{\"field\":null,\"message\":\"Framework with ID " + reactId
+                        + " was modified.\"}]}"
+                ));
+    }
+
+    @Test
+    public void updateFramework_versionsOnlyChangeETag() throws Exception {
+        JavascriptFramework react = repository.getByName("React");
+        String eTag = mockMvc.perform(get("/frameworks/{id}", react.getId()))
+                .andReturn().getResponse().getHeader("ETag");
+        react.getVersions().get(2).setDeprecationDate(LocalDate.of(2030, 1, 1));
+
+        mockMvc.perform(put("/frameworks/{id}", react.getId())
+                        .header("If-Match", eTag)
+                        .contentType(JSON)
+                        .content(objectMapper.writeValueAsString(react)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(eTag)));
+    }
+
+    @Test
+    public void patchFramework() throws Exception {
+        JavascriptFramework react = repository.getByName("React");
+        List<Long> versionIds = react.getVersions().stream().map(FrameworkVersion::getId).toList();
+
+        mockMvc.perform(patch("/frameworks/{id}", react.getId())
+                        .contentType("application/merge-patch+json")
+                        .content("{\"rating\":5}"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(jsonPath("$.name", is("React")))
+                .andExpect(jsonPath("$.rating", is(5)));
+
+        JavascriptFramework patched = repository.getByName("React");
+        assertThat(patched.getDescription(), is("React is better"));
+        assertThat(patched.getVersions().stream().map(FrameworkVersion::getId).toList(),
+                containsInAnyOrder(versionIds.toArray()));
+    }
+
+    @Test
+    public void patchFramework_versions() throws Exception {
+        JavascriptFramework react = repository.getByName("React");
+        Long keptId = react.getVersions().stream().filter(v -> v.getVersion().equals("2.0")).findFirst().get().getId();
+
+        mockMvc.perform(patch("/frameworks/{id}", react.getId())
+                        .contentType("application/merge-patch+json")
+                        .content("{\"versions\":[{\"version\":\"2.0\",\"deprecationDate\":\"2016-11-11\"},"
+                                + "{\"version\":\"19.0\"}]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.versions[*].version", containsInAnyOrder("2.0", "19.0")))
+                .andExpect(jsonPath("$.versions[?(@.version == '2.0')].id", contains(keptId.intValue())));
+    }
+
+    @Test
+    public void frameworkSummaries() throws Exception {
+        Long reactId = repository.getByName("React").getId();
+        LocalDate deprecationDate = LocalDate.now().plusDays(30);
+
+        mockMvc.perform(get("/frameworks/summary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].name", contains("Angular", "React")))
+                .andExpect(jsonPath("$[0].latestVersion", is("7.2")))
+                .andExpect(jsonPath("$[0].supportedVersions", is(1)))
+                .andExpect(jsonPath("$[0].nextDeprecationDate", nullValue()));
+
+        mockMvc.perform(post("/frameworks/{id}/versions", reactId)
+                        .contentType(JSON)
+                        .content("{\"version\":\"18.10\",\"deprecationDate\":\"" + deprecationDate + "\"}"))
+                .andExpect(status().isOk());
+
+        // 18.10 follows 18.2 as a semantic version, not as a string
+        mockMvc.perform(get("/frameworks/summary"))
+                .andExpect(jsonPath("$[1].latestVersion", is("18.10")))
+                .andExpect(jsonPath("$[1].supportedVersions", is(2)))
+                .andExpect(jsonPath("$[1].nextDeprecationDate", is(deprecationDate.toString())));
+    }
+
+    @Test
+    public void frameworkSummaries_refreshedWhenDeprecated() throws Exception {
+        Long reactId = repository.getByName("React").getId();
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        // As if the version was deprecated since the summary was computed
+        jdbcTemplate.update("UPDATE framework_version SET deprecation_date = ? WHERE framework_id = ? AND version = ?",
+                yesterday, reactId, "18.2");
+        jdbcTemplate.update("UPDATE javascript_framework SET next_deprecation_date = ? WHERE id = ?",
+                yesterday, reactId);
+        em.getEntityManagerFactory().getCache().evictAll();
+
+        javascriptFrameworkService.refreshSummaries();
+
+        mockMvc.perform(get("/frameworks/summary"))
+                .andExpect(jsonPath("$[1].latestVersion", is("18.2")))
+                .andExpect(jsonPath("$[1].supportedVersions", is(0)))
+                .andExpect(jsonPath("$[1].nextDeprecationDate", nullValue()));
+    }
+
+    @Test
+    public void deprecatingVersions_pages() throws Exception {
+        MvcResult first = mockMvc.perform(get("/versions/deprecating")
+                        .param("from", "2010-11-01")
+                        .param("to", "2016-11-11")
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].deprecationDate", contains("2011-11-11", "2015-10-10")))
+                .andExpect(jsonPath("$.items[*].frameworkName", contains("Angular", "React")))
+                .andExpect(jsonPath("$.nextCursor", notNullValue()))
+                .andReturn();
+        String cursor = objectMapper.readTree(first.getResponse().getContentAsString()).get("nextCursor").asText();
+
+        mockMvc.perform(get("/versions/deprecating")
+                        .param("from", "2010-11-01")
+                        .param("to", "2016-11-11")
+                        .param("after", cursor)
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].deprecationDate", contains("2016-11-11")))
+                .andExpect(jsonPath("$.items[0].version", is("2.0")))
+                .andExpect(jsonPath("$.nextCursor", nullValue()));
+    }
+
+    @Test
+    public void deprecatingVersions_invalid() throws Exception {
+        mockMvc.perform(get("/versions/deprecating").param("from", "2020-01-01").param("to", "2019-01-01"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().json(
+                        "{\"errors\":[{\"field\":null,\"message\":\"Date from must not be after date to.\"}]}"
+                ));
+        mockMvc.perform(get("/versions/deprecating").param("to", "2030-01-01").param("after", "tomorrow"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void versions_range() throws Exception {
+        MvcResult first = mockMvc.perform(get("/versions").param("range", "^18 || >=2.0 <3").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].version", contains("2.0", "2.0")))
+                .andExpect(jsonPath("$.items[*].frameworkName", contains("Angular", "React")))
+                .andExpect(jsonPath("$.nextCursor", notNullValue()))
+                .andReturn();
+        String cursor = objectMapper.readTree(first.getResponse().getContentAsString()).get("nextCursor").asText();
+
+        mockMvc.perform(get("/versions").param("range", "^18 || >=2.0 <3").param("after", cursor).param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].version", contains("18.2")))
+                .andExpect(jsonPath("$.nextCursor", nullValue()));
+
+        // 18.2 is after 7.2 in semantic versioning order
+        mockMvc.perform(get("/versions").param("range", ">=7"))
+                .andExpect(jsonPath("$.items[*].version", contains("7.2", "18.2")));
+    }
+
+    @Test
+    public void versions_invalid() throws Exception {
+        mockMvc.perform(get("/versions").param("range", "latest"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().json(
+                        "{\"errors\":[{\"field\":null,\"message\":\"Version range latest is not valid.\"}]}"
+                ));
+        mockMvc.perform(get("/versions").param("range", "*").param("after", "2.0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void patchFramework_invalid() throws Exception {
+        Long reactId = repository.getByName("React").getId();
+
+        mockMvc.perform(patch("/frameworks/{id}", reactId)
+                        .contentType("application/merge-patch+json")
+                        .content("{\"rating\":7}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().json(
+                        "{\"errors\":[{\"field\":\"rating\",\"message\":\"must be between 1 and 5\"}]}"
+                ));
+        mockMvc.perform(patch("/frameworks/{id}", reactId)
+                        .contentType("application/merge-patch+json")
+                        .content("{\"name\":\"Angular\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().json(
+                        "{\"errors\":[{\"field\":null,\"message\":\"Framework with name Angular already exists.\"}]}"
+                ));
+
+        assertThat(repository.getByName("React").getRating(), is(4));
+    }
+
+    @Test
+    public void deleteAndAddVersion() throws Exception {
+        JavascriptFramework react = repository.getByName("React");
+        Long supportedId = react.getVersions().stream()
+                .filter(v -> v.getDeprecationDate() == null)
+                .findFirst().get().getId();
+
+        // Without the version with no deprecation date the framework becomes deprecated
+        mockMvc.perform(delete("/frameworks/{id}/versions/{versionId}", react.getId(), supportedId)
+                        .param("waitForIndex", "true"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"));
+        assertThat(repository.getByName("React").getVersions(), hasSize(2));
+        mockMvc.perform(get("/frameworks/search").param("supported", "false").param("limit", "10"))
+                .andExpect(jsonPath("$.hits[*].item.name", contains("React")));
+
+        mockMvc.perform(post("/frameworks/{id}/versions", react.getId())
+                        .param("waitForIndex", "true")
+                        .contentType(JSON)
+                        .content("{\"version\":\"19.0\",\"deprecationDate\":null}"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(jsonPath("$.id", notNullValue()))
+                .andExpect(jsonPath("$.version", is("19.0")));
+        assertThat(repository.getByName("React").getVersions(), hasSize(3));
+        mockMvc.perform(get("/frameworks/search").param("supported", "false").param("limit", "10"))
+                .andExpect(jsonPath("$.hits", hasSize(0)));
+
+        mockMvc.perform(delete("/frameworks/{id}/versions/{versionId}", react.getId(), supportedId))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     public void deleteFramework() throws Exception {
         Long id = repository.getByName("Angular").getId();
@@ -302,4 +1025,411 @@ class JavascriptFrameworkControllerTest {
                 .andExpect(jsonPath("$[*].name", hasItems("Angular", "React")));
     }
 
+    @Test
+    public void fulltextSearch_page() throws Exception {
+        mockMvc.perform(get("/frameworks/search").param("text", "react better").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total", is(1)))
+                .andExpect(jsonPath("$.hits", hasSize(1)))
+                .andExpect(jsonPath("$.hits[0].score", greaterThan(0.0)))
+                .andExpect(jsonPath("$.hits[0].item.name", is("React")))
+                .andExpect(jsonPath("$.hits[0].item.versions", hasSize(3)));
+
+        mockMvc.perform(get("/frameworks/search").param("text", "is").param("offset", "1").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total", is(2)))
+                .andExpect(jsonPath("$.hits", hasSize(1)));
+    }
+
+    @Test
+    public void fulltextSearch_pageProjection() throws Exception {
+        Long reactId = repository.getByName("React").getId();
+
+        mockMvc.perform(get("/frameworks/search")
+                .param("text", "react")
+                .param("limit", "10")
+                .param("projection", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total", is(1)))
+                .andExpect(jsonPath("$.hits[0].item.id", is(reactId.intValue())))
+                .andExpect(jsonPath("$.hits[0].item.name", is("React")))
+                .andExpect(jsonPath("$.hits[0].item.description", is("React is better")))
+                .andExpect(jsonPath("$.hits[0].item.versions").doesNotExist());
+    }
+
+    @Test
+    public void suggest_prefix() throws Exception {
+        mockMvc.perform(get("/frameworks/suggest").param("text", "reac"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].name", is("React")));
+    }
+
+    @Test
+    public void suggest_typo() throws Exception {
+        mockMvc.perform(get("/frameworks/suggest").param("text", "angluar"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].name", is("Angular")));
+    }
+
+    @Test
+    public void fulltextSearch_normalizedTextShared() throws Exception {
+        mockMvc.perform(get("/frameworks/search").param("text", "React"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)));
+        mockMvc.perform(get("/frameworks/suggest").param("text", "Reac"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)));
+        long queries = meterRegistry.get("search.query").timers().stream().mapToLong(timer -> timer.count()).sum();
+
+        // Differs only in case and spacing, served from the cache
+        mockMvc.perform(get("/frameworks/search").param("text", "  REACT "))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name", is("React")));
+        mockMvc.perform(get("/frameworks/suggest").param("text", "reac "))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name", is("React")));
+        assertThat(
+                meterRegistry.get("search.query").timers().stream().mapToLong(timer -> timer.count()).sum(),
+                is(queries)
+        );
+    }
+
+    @Test
+    public void searchCache_coalescesConcurrentRequests() throws Exception {
+        FrameworkResponseCache.Variant variant = new FrameworkResponseCache.Variant(
+                ResponseFormat.JSON, ContentCoding.IDENTITY
+        );
+        double coalesced = meterRegistry.get("cache.coalesced").tag("cache", "framework-searches").counter().count();
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<CompletableFuture<FrameworkResponseCache.Response>> responses = IntStream.range(0, 4)
+                .mapToObj(i -> CompletableFuture.supplyAsync(() -> responseCache.search("burst", variant, () -> {
+                    executions.incrementAndGet();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return List.of("React");
+                }), executor))
+                .toList();
+
+        // Release the execution once the other requests wait for it
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (meterRegistry.get("cache.coalesced").tag("cache", "framework-searches").counter().count()
+                < coalesced + 3 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        release.countDown();
+
+        for (CompletableFuture<FrameworkResponseCache.Response> response : responses) {
+            byte[] body = response.get(10, TimeUnit.SECONDS).body();
+            assertThat(new String(body, StandardCharsets.UTF_8), is("[\"React\"]"));
+        }
+        executor.shutdown();
+        assertThat(executions.get(), is(1));
+        assertThat(
+                meterRegistry.get("cache.coalesced").tag("cache", "framework-searches").counter().count(),
+                is(coalesced + 3)
+        );
+    }
+
+    @Test
+    public void fulltextSearch_filterSortAndFacets() throws Exception {
+        JavascriptFramework backbone = new JavascriptFramework("Backbone", "Backbone is deprecated", 4);
+        backbone.addVersion(new FrameworkVersion("1.4", LocalDate.of(2019, 2, 25)));
+        repository.save(backbone);
+        indexingOutbox.awaitIndexed();
+
+        mockMvc.perform(get("/frameworks/search")
+                .param("minRating", "4")
+                .param("sort", "NAME")
+                .param("facets", "true")
+                .param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total", is(2)))
+                .andExpect(jsonPath("$.hits[*].item.name", contains("Backbone", "React")))
+                .andExpect(jsonPath("$.facets.rating.4", is(2)))
+                .andExpect(jsonPath("$.facets.supported", is(1)))
+                .andExpect(jsonPath("$.facets.deprecated", is(1)));
+
+        mockMvc.perform(get("/frameworks/search")
+                .param("text", "is")
+                .param("supported", "true")
+                .param("sort", "RATING")
+                .param("facets", "true")
+                .param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total", is(2)))
+                .andExpect(jsonPath("$.hits[*].item.name", contains("React", "Angular")))
+                .andExpect(jsonPath("$.facets.rating.3", is(1)))
+                .andExpect(jsonPath("$.facets.rating.4", is(1)))
+                .andExpect(jsonPath("$.facets.deprecated", is(0)));
+    }
+
+    @Test
+    public void reindex() throws Exception {
+        mockMvc.perform(get("/frameworks/search").param("text", "angular react"))
+                .andExpect(jsonPath("$", hasSize(2)));
+        // Deleted behind the back of Hibernate Search, so its document stays in the index
+        Long angularId = repository.getByName("Angular").getId();
+        jdbcTemplate.update("DELETE FROM framework_version WHERE framework_id = ?", angularId);
+        jdbcTemplate.update("DELETE FROM javascript_framework WHERE id = ?", angularId);
+        em.getEntityManagerFactory().getCache().evictAll();
+
+        mockMvc.perform(post("/admin/search/reindex"))
+                .andExpect(status().isAccepted());
+
+        ReindexStatus status = awaitReindex();
+        assertThat(status.state(), is(ReindexStatus.State.COMPLETED));
+        assertThat(status.total(), is(1L));
+        assertThat(status.indexed(), is(1L));
+        // The rebuild keeps the document, the purge completing it goes through the outbox
+        assertThat(indexingOutbox.awaitIndexed(), is(true));
+
+        // The cached result was evicted
+        mockMvc.perform(get("/frameworks/search").param("text", "angular react"))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].name", is("React")));
+    }
+
+    @Test
+    public void votes() throws Exception {
+        Long reactId = repository.getByName("React").getId();
+        String eTag = mockMvc.perform(get("/frameworks/{id}", reactId)).andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(post("/frameworks/{id}/votes", reactId).contentType(JSON).content("{\"stars\":5}"))
+                .andExpect(status().isAccepted());
+        mockMvc.perform(post("/frameworks/{id}/votes", reactId).contentType(JSON).content("{\"stars\":4}"))
+                .andExpect(status().isAccepted());
+        mockMvc.perform(post("/frameworks/{id}/votes", reactId).contentType(JSON).content("{\"stars\":4}"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.votes", is(3)));
+
+        mockMvc.perform(get("/frameworks/{id}/votes", reactId))
+                .andExpect(status().isOk())
+                .andExpect(content().json(
+                        "{\"votes\":3,\"histogram\":{\"1\":0,\"2\":0,\"3\":0,\"4\":2,\"5\":1}}"
+                ))
+                .andExpect(jsonPath("$.average", closeTo(13.0 / 3, 1e-9)));
+        // The framework itself is not changed by votes
+        mockMvc.perform(get("/frameworks/{id}", reactId))
+                .andExpect(header().string("ETag", eTag));
+    }
+
+    @Test
+    public void votes_invalid() throws Exception {
+        Long reactId = repository.getByName("React").getId();
+
+        mockMvc.perform(post("/frameworks/{id}/votes", reactId).contentType(JSON).content("{\"stars\":6}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/frameworks/{id}/votes", reactId).contentType(JSON).content("{}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().json(
+                        "{\"errors\":[{\"field\":\"stars\",\"message\":\"must not be null\"}]}"
+                ));
+        mockMvc.perform(post("/frameworks/{id}/votes", reactId).contentType(JSON).content("{\"stars\":null}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/frameworks/{id}/votes", reactId).contentType(JSON))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/frameworks/{id}/votes", 0).contentType(JSON).content("{\"stars\":3}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().json(
+                        "{\"errors\":[{\"field\":null,\"message\":\"Framework with ID 0 not found.\"}]}"
+                ));
+        mockMvc.perform(get("/frameworks/{id}/votes", reactId))
+                .andExpect(jsonPath("$.votes", is(0)))
+                .andExpect(jsonPath("$.average", nullValue()));
+    }
+
+    @Test
+    public void votes_flushedConcurrently() throws Exception {
+        Long reactId = repository.getByName("React").getId();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<CompletableFuture<Void>> voters = IntStream.range(0, 4)
+                .mapToObj(voter -> CompletableFuture.runAsync(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        voteTally.vote(reactId, i % 5 + 1);
+                    }
+                }, executor))
+                .toList();
+        // Flushes while votes are received lose none and store none twice
+        while (voters.stream().anyMatch(voter -> !voter.isDone())) {
+            voteTally.flush();
+        }
+        voteTally.flush();
+        executor.shutdown();
+
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT stars1, stars2, stars3, stars4, stars5 FROM framework_vote_tally WHERE framework_id = ?",
+                reactId
+        ).get(0).values(), everyItem(is((Object) 800L)));
+        mockMvc.perform(get("/frameworks/{id}/votes", reactId))
+                .andExpect(jsonPath("$.votes", is(4000)))
+                .andExpect(jsonPath("$.average", is(3.0)));
+
+        javascriptFrameworkService.delete(reactId);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM framework_vote_tally WHERE framework_id = ?", Long.class, reactId
+        ), is(0L));
+    }
+
+    @Test
+    public void votes_deleteRolledBack() throws Exception {
+        Long reactId = repository.getByName("React").getId();
+        voteTally.vote(reactId, 5);
+        voteTally.flush();
+        voteTally.vote(reactId, 3);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            javascriptFrameworkService.delete(reactId);
+            status.setRollbackOnly();
+        });
+
+        // Neither the stored vote nor the one not stored yet is lost
+        mockMvc.perform(get("/frameworks/{id}/votes", reactId))
+                .andExpect(jsonPath("$.votes", is(2)));
+        voteTally.flush();
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT stars3 + stars5 FROM framework_vote_tally WHERE framework_id = ?", Long.class, reactId
+        ), is(2L));
+    }
+
+    @Test
+    public void votes_frameworkDeletedMeanwhile() throws Exception {
+        Long reactId = repository.getByName("React").getId();
+        voteTally.vote(reactId, 4);
+        // Deleted without removing the tally, as when a vote races the deletion
+        repository.deleteById(reactId);
+
+        voteTally.flush();
+
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM framework_vote_tally WHERE framework_id = ?", Long.class, reactId
+        ), is(0L));
+        // The tally was dropped, the framework is unknown again
+        mockMvc.perform(get("/frameworks/{id}/votes", reactId))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void changes() throws Exception {
+        long head = changeHead();
+        Long angularId = repository.getByName("Angular").getId();
+        Long reactId = repository.getByName("React").getId();
+
+        mockMvc.perform(post("/frameworks")
+                        .contentType(JSON)
+                        .content("{\"name\":\"Svelte\",\"rating\":5}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(patch("/frameworks/{id}", reactId)
+                        .contentType("application/merge-patch+json")
+                        .content("{\"rating\":5}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/frameworks/{id}", angularId))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/frameworks/changes").param("since", Long.toString(head)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].seq", contains((int) head + 1, (int) head + 2, (int) head + 3)))
+                .andExpect(jsonPath("$.items[*].type", contains("CREATED", "UPDATED", "DELETED")))
+                .andExpect(jsonPath("$.items[0].framework.name", is("Svelte")))
+                .andExpect(jsonPath("$.items[1].framework.rating", is(5)))
+                .andExpect(jsonPath("$.items[2].frameworkId", is(angularId.intValue())))
+                .andExpect(jsonPath("$.items[2].framework", nullValue()))
+                .andExpect(jsonPath("$.nextSince", is((int) head + 3)))
+                .andExpect(jsonPath("$.more", is(false)));
+
+        mockMvc.perform(get("/frameworks/changes").param("since", Long.toString(head)).param("limit", "2"))
+                .andExpect(jsonPath("$.items", hasSize(2)))
+                .andExpect(jsonPath("$.nextSince", is((int) head + 2)))
+                .andExpect(jsonPath("$.more", is(true)));
+    }
+
+    @Test
+    public void changes_stream() throws Exception {
+        long head = changeHead();
+        Long reactId = repository.getByName("React").getId();
+        mockMvc.perform(delete("/frameworks/{id}", reactId))
+                .andExpect(status().isOk());
+
+        MvcResult stream = mockMvc.perform(get("/frameworks/changes")
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .header("Last-Event-ID", head))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        awaitContent(stream, "id:" + (head + 1));
+
+        // Changes committed later are sent as they come
+        mockMvc.perform(post("/frameworks")
+                        .contentType(JSON)
+                        .content("{\"name\":\"Svelte\",\"rating\":5}"))
+                .andExpect(status().isOk());
+        awaitContent(stream, "id:" + (head + 2));
+
+        String content = stream.getResponse().getContentAsString();
+        assertThat(content, containsString("event:change"));
+        assertThat(content, containsString("\"type\":\"DELETED\""));
+        assertThat(content, containsString("\"name\":\"Svelte\""));
+    }
+
+    private long changeHead() {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(MAX(seq), 0) FROM framework_change", Long.class);
+    }
+
+    private static void awaitContent(MvcResult result, String expected) throws Exception {
+        for (int i = 0; i < 100; i++) {
+            if (result.getResponse().getContentAsString().contains(expected)) {
+                return;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Stream doesn't contain " + expected + ".");
+    }
+
+    @Test
+    public void searchIndexConsistencyCheck() throws Exception {
+        // Changed behind the back of Hibernate Search, as if indexing was lost by a crash
+        Long angularId = repository.getByName("Angular").getId();
+        jdbcTemplate.update("DELETE FROM framework_version WHERE framework_id = ?", angularId);
+        jdbcTemplate.update("DELETE FROM javascript_framework WHERE id = ?", angularId);
+        jdbcTemplate.update("UPDATE javascript_framework SET description = ?, revision = revision + 1 WHERE name = ?",
+                "React is rewritten", "React");
+        em.getEntityManagerFactory().getCache().evictAll();
+
+        searchIndexConsistencyCheck.check();
+        assertThat(indexingOutbox.awaitIndexed(), is(true));
+
+        mockMvc.perform(get("/frameworks/search").param("text", "angular rewritten"))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].name", is("React")));
+    }
+
+    private long indexedRevision(Long id) {
+        return new TransactionTemplate(transactionManager).execute(status -> Search.session(em)
+                .search(JavascriptFramework.class)
+                .select(f -> f.field("revision", Long.class))
+                .where(f -> f.id().matching(id))
+                .fetchSingleHit()
+                .orElseThrow());
+    }
+
+    private ReindexStatus awaitReindex() throws Exception {
+        for (int i = 0; i < 200; i++) {
+            MvcResult result = mockMvc.perform(get("/admin/search/reindex"))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            ReindexStatus status = objectMapper.readValue(result.getResponse().getContentAsString(),
+                    ReindexStatus.class);
+            if (status.state() != ReindexStatus.State.RUNNING) {
+                return status;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Rebuild of the search index didn't finish in time.");
+    }
+
 }
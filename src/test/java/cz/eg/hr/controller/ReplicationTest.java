@@ -0,0 +1,202 @@
+package cz.eg.hr.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cz.eg.hr.Application;
+import cz.eg.hr.data.FrameworkVersion;
+import cz.eg.hr.data.JavascriptFramework;
+import cz.eg.hr.repository.JavascriptFrameworkRepository;
+import cz.eg.hr.repository.TestJavascriptFrameworkRepository;
+import cz.eg.hr.service.ReplicaSync;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.hamcrest.Matcher;
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * The test context is the primary, a replica with its own index runs in another context on the same database.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=" + ReplicationTest.DATABASE_URL,
+    // Don't share the index directory with other test contexts
+    "spring.jpa.properties.hibernate.search.backend.directory.type=local-heap"
+})
+@AutoConfigureMockMvc
+class ReplicationTest {
+
+    static final String DATABASE_URL = "jdbc:h2:mem:replication;DB_CLOSE_DELAY=-1";
+
+    private static final HttpClient httpClient = HttpClient.newHttpClient();
+
+    private static ConfigurableApplicationContext replica;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TestJavascriptFrameworkRepository repository;
+
+    @BeforeEach
+    public void setUp() {
+        if (replica == null) {
+            // Started once the primary created the schema
+            replica = new SpringApplicationBuilder(Application.class)
+                    .profiles("replica")
+                    .run(
+                            "--spring.datasource.url=" + DATABASE_URL,
+                            "--spring.jpa.properties.hibernate.search.backend.directory.type=local-heap",
+                            "--spring.jpa.properties.hibernate.search.backend.directory.root=replica",
+                            "--server.port=0",
+                            "--frameworks.replication.primary-url=http://primary.test/"
+                    );
+        }
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        if (replica != null) {
+            replica.close();
+        }
+    }
+
+    @Test
+    public void replicaAppliesChangesOfPrimary() throws Exception {
+        JavascriptFramework svelte = new JavascriptFramework("Svelte", "Svelte compiles components", 4);
+        svelte.addVersion(new FrameworkVersion("4.2", null));
+        mockMvc.perform(post("/frameworks")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(svelte)))
+                .andExpect(status().isOk());
+        Long id = repository.getByName("Svelte").getId();
+
+        assertThat(awaitReplica("/frameworks/search?text=svelte", containsString("compiles")),
+                containsString("compiles"));
+        // Cached by the replica, evicted when the change is applied
+        assertThat(awaitReplica("/frameworks/" + id, containsString("compiles")), containsString("compiles"));
+
+        mockMvc.perform(patch("/frameworks/{id}", id)
+                        .contentType("application/merge-patch+json")
+                        .content("{\"description\":\"Svelte is fast\"}"))
+                .andExpect(status().isOk());
+
+        assertThat(awaitReplica("/frameworks/" + id, containsString("fast")), containsString("fast"));
+        assertThat(awaitReplica("/frameworks/search?text=svelte", containsString("fast")), containsString("fast"));
+
+        mockMvc.perform(delete("/frameworks/{id}", id))
+                .andExpect(status().isOk());
+
+        assertThat(awaitReplica("/frameworks/search?text=svelte", is("[]")), is("[]"));
+        assertThat(replica.getBean(ReplicaSync.class).pendingChanges(), is(0L));
+    }
+
+    @Test
+    public void replicaEvictsOnlyChangedEntities() throws Exception {
+        JavascriptFramework vue = new JavascriptFramework("Vue", "Vue is progressive", 4);
+        vue.addVersion(new FrameworkVersion("3.3", null));
+        JavascriptFramework ember = new JavascriptFramework("Ember", "Ember is ambitious", 3);
+        ember.addVersion(new FrameworkVersion("5.0", null));
+        repository.save(vue);
+        repository.save(ember);
+        Long vueId = repository.getByName("Vue").getId();
+        Long emberId = repository.getByName("Ember").getId();
+        Long emberVersionId = repository.getByName("Ember").getVersions().get(0).getId();
+
+        // Loaded by the replica into its second-level and query caches
+        JavascriptFrameworkRepository replicaRepository = replica.getBean(JavascriptFrameworkRepository.class);
+        new TransactionTemplate(replica.getBean(PlatformTransactionManager.class)).executeWithoutResult(status ->
+                replicaRepository.findAllById(List.of(vueId, emberId))
+                        .forEach(framework -> framework.getVersions().size())
+        );
+        assertThat(replicaRepository.existsByName("Solid"), is(false));
+        Cache cache = replica.getBean(EntityManagerFactory.class).getCache();
+        assertThat(cache.contains(FrameworkVersion.class, emberVersionId), is(true));
+
+        mockMvc.perform(patch("/frameworks/{id}", vueId)
+                        .contentType("application/merge-patch+json")
+                        .content("{\"description\":\"Vue is approachable\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/frameworks")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Solid\",\"rating\":4}"))
+                .andExpect(status().isOk());
+        awaitReplica("/frameworks/" + vueId, containsString("approachable"));
+        awaitReplica("/frameworks/search?text=solid", containsString("Solid"));
+
+        // Reloaded by the replica when reindexing it
+        assertThat(replicaRepository.findById(vueId).orElseThrow().getDescription(), is("Vue is approachable"));
+        assertThat(cache.contains(JavascriptFramework.class, emberId), is(true));
+        assertThat(cache.contains(FrameworkVersion.class, emberVersionId), is(true));
+        // The cached query result is outdated by the update timestamp of the table
+        assertThat(replicaRepository.existsByName("Solid"), is(true));
+    }
+
+    @Test
+    public void replicaRedirectsWrites() throws Exception {
+        HttpResponse<String> response = httpClient.send(
+                HttpRequest.newBuilder(replicaUri("/frameworks?waitForIndex=true"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString("{\"name\":\"Qwik\"}"))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString()
+        );
+
+        assertThat(response.statusCode(), is(307));
+        assertThat(response.headers().firstValue("Location").orElse(null),
+                is("http://primary.test/frameworks?waitForIndex=true"));
+        assertThat(repository.getByName("Qwik"), nullValue());
+    }
+
+    @Test
+    public void replicationLagMetric() {
+        MeterRegistry meterRegistry = replica.getBean(MeterRegistry.class);
+
+        assertThat(meterRegistry.get("replication.lag").gauge().value(), greaterThanOrEqualTo(0.0));
+        assertThat(meterRegistry.get("replication.pending").gauge().value(), greaterThanOrEqualTo(0.0));
+    }
+
+    /**
+     * Body of the response of the replica once it matches, or the last one when it doesn't match in time.
+     */
+    private static String awaitReplica(String path, Matcher<String> matcher) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        String body = getFromReplica(path);
+        while (!matcher.matches(body) && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+            body = getFromReplica(path);
+        }
+        return body;
+    }
+
+    private static String getFromReplica(String path) throws Exception {
+        return httpClient.send(HttpRequest.newBuilder(replicaUri(path)).build(), HttpResponse.BodyHandlers.ofString())
+                .body();
+    }
+
+    private static URI replicaUri(String path) {
+        return URI.create("http://localhost:" + replica.getEnvironment().getProperty("local.server.port") + path);
+    }
+}
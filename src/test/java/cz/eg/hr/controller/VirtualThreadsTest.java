@@ -0,0 +1,81 @@
+package cz.eg.hr.controller;
+
+import cz.eg.hr.data.JavascriptFramework;
+import cz.eg.hr.repository.TestJavascriptFrameworkRepository;
+import jakarta.servlet.Filter;
+import java.util.concurrent.atomic.AtomicReference;
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Requests handled over HTTP with {@code frameworks.virtual-threads.enabled}, the threads are recorded by a filter.
+ * Runs on Java 21 and newer, the build targets Java 17, so the thread is checked reflectively.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "frameworks.virtual-threads.enabled=true",
+    "spring.datasource.url=jdbc:h2:mem:virtual-threads;DB_CLOSE_DELAY=-1",
+    // Don't share the index directory with other test contexts
+    "spring.jpa.properties.hibernate.search.backend.directory.type=local-heap"
+})
+@EnabledIf("virtualThreadsAvailable")
+class VirtualThreadsTest {
+
+    private static final AtomicReference<Thread> requestThread = new AtomicReference<>();
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private TestJavascriptFrameworkRepository repository;
+
+    @TestConfiguration
+    static class ThreadRecording {
+
+        @Bean
+        public Filter threadRecordingFilter() {
+            return (request, response, chain) -> {
+                requestThread.set(Thread.currentThread());
+                chain.doFilter(request, response);
+            };
+        }
+    }
+
+    static boolean virtualThreadsAvailable() {
+        return Runtime.version().feature() >= 21;
+    }
+
+    @BeforeEach
+    public void setUp() {
+        requestThread.set(null);
+        repository.deleteAll();
+        repository.save(new JavascriptFramework("Svelte", "Svelte compiles components", 4));
+    }
+
+    @Test
+    public void requestOnVirtualThread() throws ReflectiveOperationException {
+        ResponseEntity<String> response = restTemplate.getForEntity("/frameworks", String.class);
+
+        assertThat(response.getStatusCode(), is(HttpStatus.OK));
+        assertThat(response.getBody(), containsString("Svelte"));
+        assertThat(Thread.class.getMethod("isVirtual").invoke(requestThread.get()), is(true));
+    }
+
+    @Test
+    public void asyncRequest() {
+        // Streamed by the executor of virtual threads
+        ResponseEntity<String> response = restTemplate.getForEntity("/frameworks/export", String.class);
+
+        assertThat(response.getStatusCode(), is(HttpStatus.OK));
+        assertThat(response.getBody(), containsString("Svelte"));
+    }
+}
@@ -0,0 +1,49 @@
+package cz.eg.hr.data;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SemanticVersionTest {
+
+    @Test
+    public void parse() {
+        assertThat(SemanticVersion.parse("1.9"), is(new SemanticVersion(1, 9, 0, List.of())));
+        assertThat(SemanticVersion.parse("v2"), is(new SemanticVersion(2, 0, 0, List.of())));
+        assertThat(SemanticVersion.parse("3.0.1-rc.1+build.5"), is(new SemanticVersion(3, 0, 1, List.of("rc", "1"))));
+        assertThat(SemanticVersion.tryParse("latest").isPresent(), is(false));
+        assertThrows(IllegalArgumentException.class, () -> SemanticVersion.parse("1.2.3.4"));
+    }
+
+    @Test
+    public void order() {
+        List<String> versions = List.of(
+                "1.0.0", "1.0.0-rc.1", "1.0.0-beta.11", "1.0.0-beta.2", "1.0.0-beta", "1.0.0-alpha.beta",
+                "1.0.0-alpha.1", "1.0.0-alpha", "1.10", "1.9", "10.0", "2.0", "legacy"
+        );
+
+        assertThat(versions.stream().sorted(SemanticVersion.ORDER).toList(), contains(
+                "legacy", "1.0.0-alpha", "1.0.0-alpha.1", "1.0.0-alpha.beta", "1.0.0-beta", "1.0.0-beta.2",
+                "1.0.0-beta.11", "1.0.0-rc.1", "1.0.0", "1.9", "1.10", "2.0", "10.0"
+        ));
+    }
+
+    @Test
+    public void preReleaseKey_orderedLikeVersions() {
+        List<SemanticVersion> versions = Stream.of(
+                "1.0.0", "1.0.0-rc.1", "1.0.0-beta.11", "1.0.0-beta.2", "1.0.0-beta", "1.0.0-alpha.beta",
+                "1.0.0-alpha.1", "1.0.0-alpha", "1.0.0-alpha-1", "1.0.0-0", "1.0.0-a.b", "1.0.0-a-b", "1.0.0-1.2",
+                "1.0.0-12"
+        ).map(SemanticVersion::parse).toList();
+
+        List<SemanticVersion> byKey = versions.stream()
+                .sorted(Comparator.comparing(SemanticVersion::preReleaseKey))
+                .toList();
+
+        assertThat(byKey, is(versions.stream().sorted().toList()));
+    }
+}
@@ -0,0 +1,89 @@
+package cz.eg.hr.data;
+
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class VersionRangeTest {
+
+    @Test
+    public void caretAndTilde() {
+        assertMatches("^1.2.3", "1.2.3", "1.9.0");
+        assertNotMatches("^1.2.3", "1.2.2", "2.0.0", "2.0.0-rc.1");
+        assertMatches("^0.2.3", "0.2.3", "0.2.9");
+        assertNotMatches("^0.2.3", "0.3.0");
+        assertMatches("^0.0.3", "0.0.3");
+        assertNotMatches("^0.0.3", "0.0.4");
+        assertMatches("^0.x", "0.0.1", "0.9.9");
+        assertNotMatches("^0.x", "1.0.0");
+        assertMatches("~1.2.3", "1.2.3", "1.2.9");
+        assertNotMatches("~1.2.3", "1.3.0");
+        assertMatches("~1", "1.0.0", "1.9.9");
+        assertNotMatches("~1", "2.0.0");
+    }
+
+    @Test
+    public void comparatorsAndXRanges() {
+        assertMatches(">=2.0 <3", "2.0.0", "2.9.9");
+        assertNotMatches(">=2.0 <3", "1.9.9", "3.0.0", "3.0.0-0");
+        assertMatches("> = 2 < 3", "2.5.0");
+        assertMatches(">1.2", "1.3.0");
+        assertNotMatches(">1.2", "1.2.9", "1.3.0-rc.1");
+        assertMatches("<=1.2", "1.2.9");
+        assertNotMatches("<=1.2", "1.3.0");
+        assertMatches("1.x", "1.0.0", "1.99.0");
+        assertMatches("1.2.*", "1.2.0");
+        assertNotMatches("1.2.*", "1.3.0");
+        assertMatches("*", "0.0.0", "18.2.0");
+        assertNotMatches("*", "1.0.0-beta");
+        assertNotMatches(">*", "1.0.0");
+        assertMatches("^18 || >=2.0 <3", "18.2.0", "2.0.0");
+        assertNotMatches("^18 || >=2.0 <3", "7.2.0");
+    }
+
+    @Test
+    public void hyphen() {
+        assertMatches("1.2.3 - 2.3.4", "1.2.3", "2.3.4");
+        assertNotMatches("1.2.3 - 2.3.4", "2.3.5");
+        assertMatches("1.2 - 2.3", "1.2.0", "2.3.9");
+        assertNotMatches("1.2 - 2.3", "2.4.0");
+    }
+
+    @Test
+    public void preReleases() {
+        assertMatches(">=1.0.0-beta", "1.0.0-beta", "1.0.0-rc.1", "1.0.0", "1.1.0");
+        assertNotMatches(">=1.0.0-beta", "1.1.0-rc.1", "1.0.0-alpha");
+        assertMatches("^1.2.3-beta.2", "1.2.3-beta.3", "1.2.4");
+        assertNotMatches("^1.2.3-beta.2", "1.2.4-beta.1");
+    }
+
+    @Test
+    public void invalid() {
+        assertThrows(IllegalArgumentException.class, () -> VersionRange.parse("latest"));
+        assertThrows(IllegalArgumentException.class, () -> VersionRange.parse(">=1.2-beta"));
+        assertThrows(IllegalArgumentException.class, () -> VersionRange.parse(">1 - 2"));
+    }
+
+    private static void assertMatches(String range, String... versions) {
+        VersionRange parsed = VersionRange.parse(range);
+        for (String version : versions) {
+            assertThat(
+                    range + " should contain " + version,
+                    parsed.matches(SemanticVersion.parse(version)),
+                    is(true)
+            );
+        }
+    }
+
+    private static void assertNotMatches(String range, String... versions) {
+        VersionRange parsed = VersionRange.parse(range);
+        for (String version : versions) {
+            assertThat(
+                    range + " shouldn't contain " + version,
+                    parsed.matches(SemanticVersion.parse(version)),
+                    is(false)
+            );
+        }
+    }
+}
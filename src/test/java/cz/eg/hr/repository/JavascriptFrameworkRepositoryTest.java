@@ -0,0 +1,160 @@
+package cz.eg.hr.repository;
+
+import cz.eg.hr.data.FrameworkVersion;
+import cz.eg.hr.data.FrameworkVersionRow;
+import cz.eg.hr.data.JavascriptFramework;
+import cz.eg.hr.data.SemanticVersion;
+import cz.eg.hr.data.VersionMatch;
+import cz.eg.hr.data.VersionRange;
+import jakarta.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+import static org.hamcrest.MatcherAssert.*;
+import static org.hamcrest.Matchers.*;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest(properties = {
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    // Don't share the index directory with other test contexts
+    "spring.jpa.properties.hibernate.search.backend.directory.type=local-heap",
+    // Statements of the background indexing would be counted too
+    "spring.jpa.properties.hibernate.search.coordination.event_processor.enabled=false"
+})
+class JavascriptFrameworkRepositoryTest {
+
+    @Autowired
+    private JavascriptFrameworkRepository repository;
+
+    @Autowired
+    private FrameworkVersionRepository versionRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transaction;
+
+    private Statistics statistics;
+
+    private Long vueId;
+
+    @BeforeEach
+    public void setUp() {
+        transaction = new TransactionTemplate(transactionManager);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        repository.deleteAll();
+
+        JavascriptFramework vue = new JavascriptFramework("Vue", "Vue is progressive", 4);
+        vue.addVersion(new FrameworkVersion("2.7", LocalDate.of(2023, 12, 31)));
+        vue.addVersion(new FrameworkVersion("3.3", null));
+        vueId = repository.save(vue).getId();
+    }
+
+    @Test
+    public void findById_repeatedLoadHitsCache() {
+        loadWithVersions();
+        statistics.clear();
+
+        JavascriptFramework vue = loadWithVersions();
+
+        assertThat(vue.getName(), is("Vue"));
+        assertThat(vue.getVersions(), hasSize(2));
+        assertThat(statistics.getPrepareStatementCount(), is(0L));
+        assertThat(statistics.getSecondLevelCacheHitCount(), greaterThan(0L));
+    }
+
+    @Test
+    public void existsByName_repeatedQueryHitsCache() {
+        assertThat(transaction.execute(status -> repository.existsByName("Vue")), is(true));
+        statistics.clear();
+
+        assertThat(transaction.execute(status -> repository.existsByName("Vue")), is(true));
+
+        assertThat(statistics.getPrepareStatementCount(), is(0L));
+        assertThat(statistics.getQueryCacheHitCount(), is(1L));
+    }
+
+    @Test
+    public void existsByName_invalidatedByInsert() {
+        assertThat(transaction.execute(status -> repository.existsByName("Svelte")), is(false));
+
+        repository.save(new JavascriptFramework("Svelte", "Svelte compiles", 4));
+
+        assertThat(transaction.execute(status -> repository.existsByName("Svelte")), is(true));
+    }
+
+    @Test
+    public void findViewRowsByIdIn_loadsNoEntities() {
+        JavascriptFramework svelte = repository.save(new JavascriptFramework("Svelte", "Svelte compiles", 4));
+        statistics.clear();
+
+        List<FrameworkVersionRow> rows = transaction.execute(status ->
+                repository.findViewRowsByIdIn(List.of(vueId, svelte.getId()))
+        );
+
+        assertThat(rows, hasSize(3));
+        assertThat(rows.get(0).name(), is("Vue"));
+        assertThat(rows.get(0).version(), is("2.7"));
+        assertThat(rows.get(1).version(), is("3.3"));
+        assertThat(rows.get(2).name(), is("Svelte"));
+        assertThat(rows.get(2).versionId(), nullValue());
+        assertThat(statistics.getPrepareStatementCount(), is(1L));
+        assertThat(statistics.getEntityLoadCount(), is(0L));
+    }
+
+    @Test
+    public void findInRange_matchesVersionRange() {
+        List<String> versions = List.of(
+                "0.0.3", "0.1.0", "0.2.5", "1.0.0-a", "1.0.0-a.1", "1.0.0-b.2", "1.0.0-b.11", "1.0.0-rc.1", "1.0.0",
+                "1.2", "1.2.3", "1.3.0-rc.1", "1.10.0", "2.0.0-0", "2.0", "2.5.1", "18.2", "legacy"
+        );
+        JavascriptFramework semver = new JavascriptFramework("Semver", "Semver has many versions", 3);
+        versions.forEach(version -> semver.addVersion(new FrameworkVersion(version, null)));
+        repository.save(semver);
+
+        List<String> ranges = List.of(
+                "*", "^1.2", "~1.2.3", "1.x", ">=1.0.0-a.1 <1.0.0", "^0.1", "^0.0.3", ">1.2 <=2", "1.2.3 - 2",
+                "<0.2 || >=18", ">=1.0.0-b.2", "=2.0", ">*", "^1.0.0-b.2 || 2.0.0-0"
+        );
+        // Versions of Vue are there too
+        for (String range : ranges) {
+            VersionRange versionRange = VersionRange.parse(range);
+            List<String> expected = Stream.concat(versions.stream(), Stream.of("2.7", "3.3"))
+                    .flatMap(version -> SemanticVersion.tryParse(version).stream())
+                    .filter(versionRange::matches)
+                    .sorted()
+                    .map(SemanticVersion::toString)
+                    .toList();
+
+            List<String> found = transaction.execute(status ->
+                    versionRepository.findInRange(versionRange, null, null, 100)
+            ).stream().map(version -> SemanticVersion.parse(version.version()).toString()).toList();
+
+            assertThat(range, found, is(expected));
+        }
+
+        // Keyset continues after the given version
+        List<VersionMatch> page = transaction.execute(status -> versionRepository.findInRange(
+                VersionRange.parse("^1.0.0-a"), SemanticVersion.parse("1.0.0-b.11"), Long.MAX_VALUE, 3
+        ));
+        assertThat(page.stream().map(VersionMatch::version).toList(), contains("1.0.0-rc.1", "1.0.0", "1.2"));
+    }
+
+    private JavascriptFramework loadWithVersions() {
+        return transaction.execute(status -> {
+            JavascriptFramework framework = repository.findById(vueId).orElseThrow();
+            framework.getVersions().forEach(FrameworkVersion::getVersion);
+            return framework;
+        });
+    }
+}